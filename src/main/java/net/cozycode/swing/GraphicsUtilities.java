@@ -21,8 +21,16 @@ import java.awt.Graphics;
 import javax.swing.JComponent;
 
 import net.cozycode.core.Comparisons;
+import net.cozycode.swing.text.TextMeasurer;
 
 public final class GraphicsUtilities {
+   private static final ThreadLocal<TextDecorationBatch> UNDERLINES = new ThreadLocal<TextDecorationBatch>() {
+      @Override
+      protected TextDecorationBatch initialValue() {
+         return new TextDecorationBatch();
+      }
+   };
+
    private GraphicsUtilities() { /* Static Singleton */ }
 
    /**
@@ -32,8 +40,29 @@ public final class GraphicsUtilities {
       if( Comparisons.isEmpty( text )) {
          return;
       }
-      int width = g.getFontMetrics().stringWidth( text );
+      int width = TextMeasurer.getShared().stringWidth( g, text );
       y = y + g.getFontMetrics().getAscent();
       g.fillRect( x, y + 1, width, 1 );
    }
+
+   /**
+    * Renders underlines below many strings rendered in the graphics' current font with a
+    * single fill, see {@link TextDecorationBatch} to collect the runs as they are painted.
+    * The batch is reused per painting thread.
+    */
+   public static void drawUnderlinesForStrings(Graphics g, String[] texts, int[] xs, int[] ys) {
+      drawDecorationsForStrings( g, UNDERLINES.get(), texts, xs, ys );
+   }
+
+   /**
+    * Renders the batch's decoration of many strings with a single fill, through a batch
+    * the caller keeps. The batch is cleared first and left empty.
+    */
+   public static void drawDecorationsForStrings(Graphics g, TextDecorationBatch batch, String[] texts, int[] xs, int[] ys) {
+      batch.clear();
+      for( int i = 0; i < texts.length; i++ ) {
+         batch.add( texts[i], xs[i], ys[i] );
+      }
+      batch.fill( g );
+   }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.Timer;
+
+import net.cozycode.swing.components.BooleanLabel;
+
+/**
+ * Carries status values from any thread to components on the event dispatch thread,
+ * keeping only the latest value per component.
+ * <p>
+ * Posting does not block and does not post an event per update. Pending values are
+ * applied together once per frame, by a timer which only runs while updates arrive.
+ * A value replaced before it was applied is counted as coalesced.
+ */
+public final class StatusUpdateDispatcher {
+   public static final int DEFAULT_FRAME_MILLIS = 16;
+
+   private static final StatusUpdateDispatcher SHARED = new StatusUpdateDispatcher();
+
+   /** Applies a value to a component, on the event dispatch thread. */
+   public interface Applier<T, V> {
+      void apply( T target, V value );
+   }
+
+   public static final Applier<BooleanLabel, Boolean> BOOLEAN_LABEL = new Applier<BooleanLabel, Boolean>() {
+      @Override
+      public void apply( BooleanLabel target, Boolean value ) {
+         target.setValue( value );
+      }
+   };
+
+   private final ConcurrentMap<Object, Pending<?, ?>> pending = new ConcurrentHashMap<Object, Pending<?, ?>>();
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+   private final Timer timer;
+   private final Runnable start = new Runnable() {
+      @Override
+      public void run() {
+         timer.start();
+      }
+   };
+
+   private final AtomicLong posted = new AtomicLong();
+   private final AtomicLong coalesced = new AtomicLong();
+   private final AtomicLong cancelled = new AtomicLong();
+   private long applied;
+   private long passes;
+
+   public StatusUpdateDispatcher() {
+      this( DEFAULT_FRAME_MILLIS );
+   }
+
+   /**
+    * @param frameMillis - The time between passes applying the pending values
+    */
+   public StatusUpdateDispatcher( int frameMillis ) {
+      if( frameMillis <= 0 ) {
+         throw new IllegalArgumentException( "frameMillis must be positive: " + frameMillis );
+      }
+      timer = new Timer( frameMillis, new ActionListener() {
+         @Override
+         public void actionPerformed( ActionEvent e ) {
+            if( flush() == 0 ) {
+               timer.stop();
+            }
+         }
+      });
+      timer.setInitialDelay( 0 );
+   }
+
+   public static StatusUpdateDispatcher getShared() {
+      return SHARED;
+   }
+
+   /**
+    * Sets the value of a BooleanLabel, null for unknown, from any thread
+    */
+   public void post( BooleanLabel target, Boolean value ) {
+      post( target, value, BOOLEAN_LABEL );
+   }
+
+   /**
+    * Applies <code>value</code> to <code>target</code> on the event dispatch thread during the
+    * next pass, replacing any value still pending for the target. May be called from any thread.
+    */
+   public <T, V> void post( T target, V value, Applier<? super T, ? super V> applier ) {
+      posted.incrementAndGet();
+      if( pending.put( target, new Pending<T, V>( target, value, applier )) != null ) {
+         coalesced.incrementAndGet();
+      }
+      if( scheduled.compareAndSet( false, true )) {
+         EventQueue.invokeLater( start );
+      }
+   }
+
+   /**
+    * Discards the value pending for a target, if any
+    */
+   public void cancel( Object target ) {
+      if( pending.remove( target ) != null ) {
+         cancelled.incrementAndGet();
+      }
+   }
+
+   /**
+    * Applies all pending values now, on the event dispatch thread
+    * 
+    * @return the number of values applied
+    */
+   public int flush() {
+      scheduled.set( false );
+      int count = 0;
+      for( Iterator<Map.Entry<Object, Pending<?, ?>>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<Object, Pending<?, ?>> entry = it.next();
+         // A value posted since the iteration began stays pending for the next pass
+         if( pending.remove( entry.getKey(), entry.getValue() )) {
+            entry.getValue().apply();
+            count++;
+         }
+      }
+      if( count > 0 ) {
+         applied += count;
+         passes++;
+      }
+      return count;
+   }
+
+   public int getPendingCount() {
+      return pending.size();
+   }
+
+   public long getPostedCount() {
+      return posted.get();
+   }
+
+   /**
+    * @return the number of values replaced by a later value before they were applied
+    */
+   public long getCoalescedCount() {
+      return coalesced.get();
+   }
+
+   /**
+    * @return the number of values discarded by {@link #cancel(Object)}
+    */
+   public long getCancelledCount() {
+      return cancelled.get();
+   }
+
+   /**
+    * @return the number of values applied, read on the event dispatch thread
+    */
+   public long getAppliedCount() {
+      return applied;
+   }
+
+   /**
+    * @return the number of passes which applied values, read on the event dispatch thread
+    */
+   public long getPassCount() {
+      return passes;
+   }
+
+   @Override
+   public String toString() {
+      return "StatusUpdateDispatcher[pending=" + pending.size() + ", posted=" + posted.get()
+            + ", coalesced=" + coalesced.get() + ", cancelled=" + cancelled.get()
+            + ", applied=" + applied + ", passes=" + passes + "]";
+   }
+
+
+   private static final class Pending<T, V> {
+      private final T target;
+      private final V value;
+      private final Applier<? super T, ? super V> applier;
+
+      Pending( T target, V value, Applier<? super T, ? super V> applier ) {
+         this.target = target;
+         this.value = value;
+         this.applier = applier;
+      }
+
+      void apply() {
+         applier.apply( target, value );
+      }
+   }
+}
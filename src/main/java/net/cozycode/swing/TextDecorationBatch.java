@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Path2D;
+
+import net.cozycode.swing.text.TextMeasurer;
+
+/**
+ * Collects runs of text which were rendered in the same font and draws their decorations
+ * with a single fill, rather than one fillRect per run.
+ * <p>
+ * Runs are given as they would be to {@link GraphicsUtilities#drawUnderlineForString},
+ * the text and the x, y it was rendered at. Widths come from the shared {@link TextMeasurer},
+ * and a run which starts where the previous one on the same line ended extends it.
+ * A batch may be reused, filling it clears the runs and keeps the buffers.
+ * Batches are not thread safe.
+ */
+public final class TextDecorationBatch {
+   public enum Decoration { UNDERLINE, STRIKETHROUGH }
+
+   private final Decoration decoration;
+   private final Path2D.Float path = new Path2D.Float();
+   private String[] texts = new String[16];
+   private int[] xs = new int[16];
+   private int[] ys = new int[16];
+   private int size;
+
+   public TextDecorationBatch() {
+      this( Decoration.UNDERLINE );
+   }
+
+   public TextDecorationBatch( Decoration decoration ) {
+      this.decoration = decoration;
+   }
+
+   public Decoration getDecoration() {
+      return decoration;
+   }
+
+   /**
+    * Adds a run of text which was rendered at x, y. Empty text is ignored.
+    */
+   public void add( String text, int x, int y ) {
+      if( text == null || text.length() == 0 ) {
+         return;
+      }
+      if( size == texts.length ) {
+         int capacity = size * 2;
+         String[] t = new String[capacity];
+         System.arraycopy( texts, 0, t, 0, size );
+         texts = t;
+         int[] x2 = new int[capacity];
+         System.arraycopy( xs, 0, x2, 0, size );
+         xs = x2;
+         int[] y2 = new int[capacity];
+         System.arraycopy( ys, 0, y2, 0, size );
+         ys = y2;
+      }
+      texts[size] = text;
+      xs[size] = x;
+      ys[size] = y;
+      size++;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public void clear() {
+      for( int i = 0; i < size; i++ ) {
+         texts[i] = null;
+      }
+      size = 0;
+   }
+
+   /**
+    * Draws the decorations of all runs in the graphics' current font and color, then clears the batch
+    */
+   public void fill( Graphics g ) {
+      if( size == 0 ) {
+         return;
+      }
+      try {
+         FontMetrics fm = g.getFontMetrics();
+         int ascent = fm.getAscent();
+         int offset;
+         int thickness;
+         if( decoration == Decoration.UNDERLINE ) {
+            // Matches drawUnderlineForString
+            offset = ascent + 1;
+            thickness = 1;
+         }
+         else {
+            LineMetrics lm = fm.getLineMetrics( texts[0], g );
+            offset = ascent + Math.round( lm.getStrikethroughOffset() );
+            thickness = Math.max( 1, Math.round( lm.getStrikethroughThickness() ));
+         }
+
+         if( g instanceof Graphics2D ) {
+            fill( (Graphics2D)g, offset, thickness );
+         }
+         else {
+            TextMeasurer measurer = TextMeasurer.getShared();
+            for( int i = 0; i < size; i++ ) {
+               g.fillRect( xs[i], ys[i] + offset, measurer.stringWidth( g, texts[i] ), thickness );
+            }
+         }
+      }
+      finally {
+         clear();
+      }
+   }
+
+   private void fill( Graphics2D g, int offset, int thickness ) {
+      TextMeasurer measurer = TextMeasurer.getShared();
+      Font font = g.getFont();
+      FontRenderContext frc = g.getFontRenderContext();
+
+      path.reset();
+      int start = xs[0];
+      int end = start + width( measurer, font, frc, texts[0] );
+      int y = ys[0];
+      for( int i = 1; i < size; i++ ) {
+         int x = xs[i];
+         int width = width( measurer, font, frc, texts[i] );
+         if( ys[i] == y && x == end ) {
+            end += width;
+            continue;
+         }
+         append( start, y + offset, end, thickness );
+         start = x;
+         end = x + width;
+         y = ys[i];
+      }
+      append( start, y + offset, end, thickness );
+      g.fill( path );
+      path.reset();
+   }
+
+   private static int width( TextMeasurer measurer, Font font, FontRenderContext frc, String text ) {
+      return (int)(0.5 + measurer.getWidth( font, frc, text ));
+   }
+
+   private void append( int x1, int y, int x2, int thickness ) {
+      path.moveTo( x1, y );
+      path.lineTo( x2, y );
+      path.lineTo( x2, y + thickness );
+      path.lineTo( x1, y + thickness );
+      path.closePath();
+   }
+}
@@ -16,23 +16,180 @@
 
 package net.cozycode.swing.components;
 
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+
+import javax.swing.Icon;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.basic.BasicHTML;
 
+/**
+ * Shows one of two texts and icons for a boolean, or a third for an unknown value.
+ * <p>
+ * Setting the value it already shows does nothing. The preferred size is measured once
+ * for the widest of the states, so switching between them only repaints the label and
+ * never re-lays out its parent. Text set through {@link #setText(String)} is measured as usual.
+ */
 public class BooleanLabel extends JLabel {
    private static final long serialVersionUID = 1L;
    private final String trueText;
    private final String falseText;
+   private final String unknownText;
+   private Icon trueIcon;
+   private Icon falseIcon;
+   private Icon unknownIcon;
+
+   private Boolean value;
+   private boolean switching;
+   private transient Dimension preferredSize;
 
    public BooleanLabel() {
       this( "true", "false" );
    }
 
    public BooleanLabel( String trueText, String falseText ) {
+      this( trueText, falseText, null );
+   }
+
+   /**
+    * @param unknownText - Shown until a value is set, and for a null value
+    */
+   public BooleanLabel( String trueText, String falseText, String unknownText ) {
       this.trueText = trueText;
       this.falseText = falseText;
+      this.unknownText = unknownText;
+      setText( unknownText );
+   }
+
+   /**
+    * Creates a label which shows only icons
+    */
+   public BooleanLabel( Icon trueIcon, Icon falseIcon, Icon unknownIcon ) {
+      this( (String)null, null, null );
+      setIcons( trueIcon, falseIcon, unknownIcon );
    }
 
    public void setBoolean( boolean value ) {
-      setText( value ? trueText : falseText );
+      setValue( Boolean.valueOf( value ));
+   }
+
+   /**
+    * @param value - The value to show, null when it is unknown
+    */
+   public void setValue( Boolean value ) {
+      if( value == null ? this.value == null : value.equals( this.value )) {
+         return;
+      }
+      this.value = value;
+      show( value == null ? unknownText : value.booleanValue() ? trueText : falseText,
+            value == null ? unknownIcon : value.booleanValue() ? trueIcon : falseIcon );
+   }
+
+   /**
+    * @return the value shown, null when it is unknown
+    */
+   public Boolean getValue() {
+      return value;
+   }
+
+   /**
+    * Shows an icon for each state, alongside the text if there is any
+    */
+   public void setIcons( Icon trueIcon, Icon falseIcon, Icon unknownIcon ) {
+      this.trueIcon = trueIcon;
+      this.falseIcon = falseIcon;
+      this.unknownIcon = unknownIcon;
+      preferredSize = null;
+      setIcon( value == null ? unknownIcon : value.booleanValue() ? trueIcon : falseIcon );
+      revalidate();
+      repaint();
+   }
+
+   private void show( String text, Icon icon ) {
+      switching = true;
+      try {
+         setText( text );
+         setIcon( icon );
+      }
+      finally {
+         switching = false;
+      }
+      repaint();
+   }
+
+   /**
+    * Switching states keeps the preferred size, any other change measures it again
+    */
+   @Override
+   public void revalidate() {
+      if( switching ) {
+         return;
+      }
+      preferredSize = null;
+      super.revalidate();
+   }
+
+   @Override
+   public void invalidate() {
+      if( !switching ) {
+         preferredSize = null;
+      }
+      super.invalidate();
+   }
+
+   @Override
+   public Dimension getPreferredSize() {
+      if( isPreferredSizeSet() || getFont() == null || !showsState()
+            || BasicHTML.isHTMLString( trueText ) || BasicHTML.isHTMLString( falseText ) || BasicHTML.isHTMLString( unknownText )) {
+         return super.getPreferredSize();
+      }
+      if( preferredSize == null ) {
+         Dimension size = new Dimension();
+         measure( size, trueText, trueIcon );
+         measure( size, falseText, falseIcon );
+         measure( size, unknownText, unknownIcon );
+         Insets insets = getInsets();
+         size.width += insets.left + insets.right;
+         size.height += insets.top + insets.bottom;
+         preferredSize = size;
+      }
+      return new Dimension( preferredSize );
+   }
+
+   /**
+    * @return false if text or an icon other than the states' was set, which is measured as usual
+    */
+   private boolean showsState() {
+      String text = getText();
+      Icon icon = getIcon();
+      return (equals( text, trueText ) || equals( text, falseText ) || equals( text, unknownText ))
+            && (icon == null || icon == trueIcon || icon == falseIcon || icon == unknownIcon);
+   }
+
+   private static boolean equals( String a, String b ) {
+      return a == null ? b == null : a.equals( b );
+   }
+
+   /**
+    * Grows size to fit a state, laid out as BasicLabelUI lays out the label
+    */
+   private void measure( Dimension size, String text, Icon icon ) {
+      if( text == null && icon == null ) {
+         return;
+      }
+      FontMetrics fm = getFontMetrics( getFont() );
+      Rectangle viewR = new Rectangle( 0, 0, Short.MAX_VALUE, Short.MAX_VALUE );
+      Rectangle iconR = new Rectangle();
+      Rectangle textR = new Rectangle();
+      SwingUtilities.layoutCompoundLabel( this, fm, text, icon,
+            getVerticalAlignment(), getHorizontalAlignment(),
+            getVerticalTextPosition(), getHorizontalTextPosition(),
+            viewR, iconR, textR, text == null ? 0 : getIconTextGap() );
+      Rectangle bounds = icon == null ? textR : text == null ? iconR : iconR.union( textR );
+      size.width = Math.max( size.width, bounds.width );
+      size.height = Math.max( size.height, bounds.height );
    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Timer;
+
+/**
+ * Fades the hover color of every animating {@link LinkButton} from one shared timer,
+ * which only runs while a fade is in progress. Used on the event dispatch thread only.
+ */
+final class HoverAnimator {
+   private HoverAnimator() { /* Static Singleton */ }
+
+   static final int DURATION = 150;
+   private static final int FRAME = 15;
+
+   private static final List<LinkButton> animating = new ArrayList<LinkButton>();
+   private static final Timer timer = new Timer( FRAME, new ActionListener() {
+      @Override
+      public void actionPerformed( ActionEvent e ) {
+         tick();
+      }
+   });
+   private static long lastTick;
+
+   static void animate( LinkButton link ) {
+      if( !animating.contains( link )) {
+         animating.add( link );
+      }
+      if( !timer.isRunning() ) {
+         lastTick = System.nanoTime();
+         timer.start();
+      }
+   }
+
+   static void stop( LinkButton link ) {
+      animating.remove( link );
+      if( animating.isEmpty() ) {
+         timer.stop();
+      }
+   }
+
+   private static void tick() {
+      long now = System.nanoTime();
+      float step = (now - lastTick) / (DURATION * 1000000f);
+      lastTick = now;
+      for( int i = animating.size() - 1; i >= 0; i-- ) {
+         LinkButton link = animating.get( i );
+         float target = link.isHovered() ? 1 : 0;
+         float fraction = link.hoverFraction;
+         fraction = fraction < target ? Math.min( target, fraction + step ) : Math.max( target, fraction - step );
+         link.hoverFraction = fraction;
+         link.repaintText();
+         if( fraction == target ) {
+            animating.remove( i );
+         }
+      }
+      if( animating.isEmpty() ) {
+         timer.stop();
+      }
+   }
+}
@@ -16,33 +16,56 @@
 
 package net.cozycode.swing.components;
 
-import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.geom.Rectangle2D;
-
 import javax.swing.JLabel;
-import javax.swing.plaf.basic.BasicLabelUI;
+import javax.swing.UIManager;
 
+/**
+ * A label followed by a horizontal line to the right edge, used to title a group of controls.
+ * Painted by the shared {@link TitledSeparatorUI}.
+ * <p>
+ * With {@link #setTitleCached(boolean) title caching} on, the title is rendered once into
+ * an image and only redrawn when the text, font, colors, enabled state or display scale
+ * changes, so resizing just draws the image and extends the line. Text rendered into the
+ * image is anti-aliased in grayscale rather than LCD sub-pixels.
+ */
 public class JTitledSeparator extends JLabel {
    private static final long serialVersionUID = 1L;
+   private static final String UI_CLASS_ID = "TitledSeparatorUI";
+
+   static {
+      if( UIManager.get( UI_CLASS_ID ) == null ) {
+         UIManager.put( UI_CLASS_ID, TitledSeparatorUI.class.getName() );
+      }
+   }
+
+   private boolean titleCached;
+   transient TitledSeparatorUI.TitleImage titleImage;
 
    public JTitledSeparator( String title ) {
       super( title );
-      setUI( new BasicLabelUI(){
-         @Override
-         protected void paintEnabledText(JLabel lbl, Graphics g, String s, int textX, int textY) {
-            super.paintEnabledText(lbl, g, s, textX, textY);
+   }
 
-            Dimension size = lbl.getSize();
-            Rectangle2D bounds = g.getFontMetrics().getStringBounds( s, g );
+   @Override
+   public String getUIClassID() {
+      return UI_CLASS_ID;
+   }
 
-            int lineStart = textX + (int)bounds.getWidth() + 5;
-            int lineStop = size.width - 5;
-            int y = size.height / 2;            
+   @Override
+   public void updateUI() {
+      titleImage = null;
+      setUI( UIManager.getUI( this ));
+   }
 
-            g.drawLine( lineStart, y, lineStop, y );
-         }
-      });
+   public boolean isTitleCached() {
+      return titleCached;
    }
 
+   /**
+    * Renders the title into an image which is reused until the title's appearance changes
+    */
+   public void setTitleCached( boolean titleCached ) {
+      this.titleCached = titleCached;
+      this.titleImage = null;
+      repaint();
+   }
 }
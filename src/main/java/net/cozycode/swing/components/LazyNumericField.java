@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import javax.swing.JFormattedTextField;
+
+import net.cozycode.swing.formatters.LazyFormatterFactory;
+
+/**
+ * A numeric text field for very large forms. While it does not have focus it holds
+ * no formatter or document filter of its own and shows its value as plain text; they
+ * are leased from the shared {@link LazyFormatterFactory} while it is being edited.
+ */
+public class LazyNumericField extends JFormattedTextField {
+   private static final long serialVersionUID = 1L;
+
+   /**
+    * @param factory - A factory shared by all fields editing the same kind of number
+    */
+   public LazyNumericField( LazyFormatterFactory factory ) {
+      super( factory );
+   }
+
+   public LazyNumericField( LazyFormatterFactory factory, Object value ) {
+      super( factory, value );
+   }
+
+   public LazyNumericField( LazyFormatterFactory factory, Object value, int columns ) {
+      this( factory, value );
+      setColumns( columns );
+   }
+}
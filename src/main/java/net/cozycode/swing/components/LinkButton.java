@@ -18,44 +18,176 @@ package net.cozycode.swing.components;
 
 import java.awt.Color;
 import java.awt.Cursor;
+import java.awt.FontMetrics;
+import java.awt.Insets;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.font.TextAttribute;
 
 import javax.swing.JButton;
-import javax.swing.plaf.basic.BasicButtonUI;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 
 import net.cozycode.swing.text.FontUtilities;
 
+/**
+ * A button which looks like a hyperlink, underlined and changing color under the mouse.
+ * <p>
+ * Hovering does not change the foreground property. The hover color is painted over
+ * it, so entering or leaving a link only repaints its text and underline and never
+ * revalidates. With {@link #setHoverAnimated(boolean) animation} on the color fades,
+ * driven by a single timer shared by all links.
+ */
 public class LinkButton extends JButton {
    private static final long serialVersionUID = 1L;
+   private static final String UI_CLASS_ID = "LinkButtonUI";
 
-   private static final Color HOVER_COLOR = new Color( 0, 0, 128 );
-   private static final Color NORMAL_COLOR = new Color( 0, 0, 255 );
+   static {
+      if( UIManager.get( UI_CLASS_ID ) == null ) {
+         UIManager.put( UI_CLASS_ID, LinkButtonUI.class.getName() );
+      }
+   }
+
+   static final Color HOVER_COLOR = new Color( 0, 0, 128 );
+   static final Color NORMAL_COLOR = new Color( 0, 0, 255 );
    private static final LinkColorChanger colorChanger = new LinkColorChanger();
 
+   private Color hoverForeground = HOVER_COLOR;
+   private boolean hovered;
+   private boolean hoverAnimated;
+   /** How far the color has moved towards the hover color, from 0 to 1 */
+   float hoverFraction;
+   private transient Color blended;
+   private transient float blendedFraction;
+
+   // Layout scratch for the repaint bounds
+   private final Rectangle viewR = new Rectangle();
+   private final Rectangle iconR = new Rectangle();
+   private final Rectangle textR = new Rectangle();
+
    public LinkButton( String text ) {
       super( text );
-      setUI( new BasicButtonUI() );
 
+      // Derived fonts are cached, links sharing a base font share the underlined one
       setFont( FontUtilities.deriveUnderline( getFont(), TextAttribute.UNDERLINE_ON ));
       setCursor( Cursor.getPredefinedCursor( Cursor.HAND_CURSOR ));
       setForeground( NORMAL_COLOR );
       setBackground( null );
       setBorder( null );
+      // Hovering is tracked here, the model's rollover state would repaint the whole button
+      setRolloverEnabled( false );
 
       addMouseListener( colorChanger );
    }
 
+   @Override
+   public String getUIClassID() {
+      return UI_CLASS_ID;
+   }
+
+   @Override
+   public void updateUI() {
+      setUI( UIManager.getUI( this ));
+   }
+
+   public boolean isHovered() {
+      return hovered;
+   }
+
+   public Color getHoverForeground() {
+      return hoverForeground;
+   }
+
+   public void setHoverForeground( Color hoverForeground ) {
+      this.hoverForeground = hoverForeground;
+      if( hoverFraction > 0 ) {
+         repaintText();
+      }
+   }
+
+   public boolean isHoverAnimated() {
+      return hoverAnimated;
+   }
+
+   /**
+    * Fades between the foreground and hover colors rather than switching at once
+    */
+   public void setHoverAnimated( boolean hoverAnimated ) {
+      this.hoverAnimated = hoverAnimated;
+   }
+
+   /**
+    * @return the foreground, or the hover color blended over it while the mouse is over the link
+    */
+   @Override
+   public Color getForeground() {
+      Color foreground = super.getForeground();
+      if( hoverFraction <= 0 || hoverForeground == null || foreground == null ) {
+         return foreground;
+      }
+      if( hoverFraction >= 1 ) {
+         return hoverForeground;
+      }
+      if( blended == null || blendedFraction != hoverFraction ) {
+         blended = blend( foreground, hoverForeground, hoverFraction );
+         blendedFraction = hoverFraction;
+      }
+      return blended;
+   }
+
+   private void setHovered( boolean hovered ) {
+      if( this.hovered == hovered ) {
+         return;
+      }
+      this.hovered = hovered;
+      if( hoverAnimated && isShowing() ) {
+         HoverAnimator.animate( this );
+      }
+      else {
+         HoverAnimator.stop( this );
+         hoverFraction = hovered ? 1 : 0;
+         repaintText();
+      }
+   }
+
+   /**
+    * Repaints only the text and its underline
+    */
+   void repaintText() {
+      String text = getText();
+      FontMetrics fm = getFontMetrics( getFont() );
+      Insets insets = getInsets();
+      viewR.setBounds( insets.left, insets.top,
+            getWidth() - insets.left - insets.right, getHeight() - insets.top - insets.bottom );
+      iconR.setBounds( 0, 0, 0, 0 );
+      textR.setBounds( 0, 0, 0, 0 );
+      SwingUtilities.layoutCompoundLabel( this, fm, text, getIcon(),
+            getVerticalAlignment(), getHorizontalAlignment(),
+            getVerticalTextPosition(), getHorizontalTextPosition(),
+            viewR, iconR, textR, text == null ? 0 : getIconTextGap() );
+      // The underline sits just below the descent
+      repaint( textR.x, textR.y, textR.width, textR.height + 2 );
+   }
+
+   private static Color blend( Color from, Color to, float fraction ) {
+      float rest = 1 - fraction;
+      return new Color(
+            Math.round( from.getRed() * rest + to.getRed() * fraction ),
+            Math.round( from.getGreen() * rest + to.getGreen() * fraction ),
+            Math.round( from.getBlue() * rest + to.getBlue() * fraction ),
+            Math.round( from.getAlpha() * rest + to.getAlpha() * fraction ));
+   }
+
    private static class LinkColorChanger extends MouseAdapter {
       @Override
       public void mouseEntered(MouseEvent e) {
-         e.getComponent().setForeground( HOVER_COLOR );
+         ((LinkButton)e.getComponent()).setHovered( true );
       }
 
       @Override
       public void mouseExited(MouseEvent e) {
-         e.getComponent().setForeground( NORMAL_COLOR );
+         ((LinkButton)e.getComponent()).setHovered( false );
       }
    }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import javax.swing.JComponent;
+import javax.swing.plaf.ComponentUI;
+import javax.swing.plaf.basic.BasicButtonUI;
+
+/**
+ * The look of {@link LinkButton}, a plain button without the look and feel's decorations.
+ * <p>
+ * A single stateless instance is shared by all link buttons. It is registered with the
+ * UIManager as "LinkButtonUI", so an application may substitute its own delegate.
+ */
+public class LinkButtonUI extends BasicButtonUI {
+   private static final LinkButtonUI SHARED = new LinkButtonUI();
+
+   public static ComponentUI createUI( JComponent c ) {
+      return SHARED;
+   }
+}
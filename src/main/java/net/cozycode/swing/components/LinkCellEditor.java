@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.awt.font.TextAttribute;
+import java.util.EventObject;
+
+import javax.swing.AbstractCellEditor;
+import javax.swing.JTable;
+import javax.swing.table.TableCellEditor;
+
+import net.cozycode.swing.text.FontUtilities;
+
+/**
+ * Makes link cells of an editable table clickable. A click on a link notifies the
+ * action listeners with the cell's text as the command, then cancels editing so the
+ * value is never written back to the model.
+ * <p>
+ * One link component is reused for every cell. The row and column being clicked are
+ * available from the table while the listeners run.
+ */
+public class LinkCellEditor extends AbstractCellEditor implements TableCellEditor {
+   private static final long serialVersionUID = 1L;
+
+   private final LinkButton link = new LinkButton( "" );
+   private Object value;
+
+   public LinkCellEditor() {
+      link.setFocusable( false );
+      link.setHorizontalAlignment( LinkButton.LEADING );
+      link.addActionListener( new ActionListener() {
+         @Override
+         public void actionPerformed( ActionEvent e ) {
+            fireActionPerformed( e );
+            cancelCellEditing();
+         }
+      });
+   }
+
+   public void addActionListener( ActionListener l ) {
+      listenerList.add( ActionListener.class, l );
+   }
+
+   public void removeActionListener( ActionListener l ) {
+      listenerList.remove( ActionListener.class, l );
+   }
+
+   /**
+    * Links are only followed with the mouse
+    */
+   @Override
+   public boolean isCellEditable( EventObject e ) {
+      return e instanceof MouseEvent;
+   }
+
+   @Override
+   public Object getCellEditorValue() {
+      return value;
+   }
+
+   @Override
+   public Component getTableCellEditorComponent( JTable table, Object value, boolean isSelected, int row, int column ) {
+      this.value = value;
+      link.setFont( FontUtilities.deriveUnderline( table.getFont(), TextAttribute.UNDERLINE_ON ));
+      link.setText( value == null ? "" : value.toString() );
+      link.setForeground( LinkButton.HOVER_COLOR );
+      link.setBackground( isSelected ? table.getSelectionBackground() : table.getBackground() );
+      link.setOpaque( true );
+      return link;
+   }
+
+   private void fireActionPerformed( ActionEvent e ) {
+      ActionEvent event = null;
+      Object[] listeners = listenerList.getListenerList();
+      for( int i = listeners.length - 2; i >= 0; i -= 2 ) {
+         if( listeners[i] == ActionListener.class ) {
+            if( event == null ) {
+               event = new ActionEvent( this, ActionEvent.ACTION_PERFORMED, link.getText(), e.getWhen(), e.getModifiers() );
+            }
+            ((ActionListener)listeners[i + 1]).actionPerformed( event );
+         }
+      }
+   }
+}
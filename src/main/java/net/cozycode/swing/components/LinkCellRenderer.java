@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.awt.font.TextAttribute;
+
+import javax.swing.BorderFactory;
+import javax.swing.JList;
+import javax.swing.JTable;
+import javax.swing.ListCellRenderer;
+import javax.swing.SwingConstants;
+import javax.swing.border.Border;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.table.TableCellRenderer;
+
+import net.cozycode.swing.text.FontUtilities;
+
+/**
+ * Renders table or list cells as links with a single component, in the look of
+ * {@link LinkButton}: an underlined font and the link colors.
+ * <p>
+ * Hovered cells are shown in the hover color once {@link #installHoverTracking(JTable)}
+ * has been called for the table or list, which also shows the hand cursor over links.
+ * Like DefaultTableCellRenderer, the component skips the revalidation and repaints
+ * its property changes would otherwise cause.
+ */
+public class LinkCellRenderer extends LinkButton implements TableCellRenderer, ListCellRenderer<Object> {
+   private static final long serialVersionUID = 1L;
+   private static final Border NO_FOCUS_BORDER = BorderFactory.createEmptyBorder( 1, 1, 1, 1 );
+
+   private transient Font baseFont;
+   private transient Font linkFont;
+
+   public LinkCellRenderer() {
+      super( "" );
+      setHorizontalAlignment( SwingConstants.LEADING );
+      setBorder( NO_FOCUS_BORDER );
+      setOpaque( true );
+      setFocusable( false );
+   }
+
+   /**
+    * Tracks the hovered cell of a table with one listener for the whole table
+    */
+   public static void installHoverTracking( JTable table ) {
+      LinkHoverTracker.install( table );
+   }
+
+   /**
+    * Tracks the hovered cell of a list with one listener for the whole list
+    */
+   public static void installHoverTracking( JList<?> list ) {
+      LinkHoverTracker.install( list );
+   }
+
+   public static void uninstallHoverTracking( JTable table ) {
+      LinkHoverTracker.uninstall( table );
+   }
+
+   public static void uninstallHoverTracking( JList<?> list ) {
+      LinkHoverTracker.uninstall( list );
+   }
+
+   @Override
+   public Component getTableCellRendererComponent( JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column ) {
+      LinkHoverTracker tracker = LinkHoverTracker.of( table );
+      configure( table.getFont(), value, isSelected,
+            isSelected ? table.getSelectionBackground() : table.getBackground(),
+            tracker != null && tracker.isHovered( row, column ));
+      return this;
+   }
+
+   @Override
+   public Component getListCellRendererComponent( JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus ) {
+      LinkHoverTracker tracker = LinkHoverTracker.of( list );
+      configure( list.getFont(), value, isSelected,
+            isSelected ? list.getSelectionBackground() : list.getBackground(),
+            tracker != null && tracker.isHovered( index, 0 ));
+      return this;
+   }
+
+   private void configure( Font font, Object value, boolean isSelected, Color background, boolean hovered ) {
+      if( font != baseFont ) {
+         baseFont = font;
+         linkFont = font == null ? null : FontUtilities.deriveUnderline( font, TextAttribute.UNDERLINE_ON );
+      }
+      setFont( linkFont );
+      setText( value == null ? "" : value.toString() );
+      setBackground( background );
+      setForeground( hovered ? HOVER_COLOR : NORMAL_COLOR );
+   }
+
+
+   //////  PERFORMANCE OVERRIDES, SEE DefaultTableCellRenderer  ///////
+
+   @Override
+   public void invalidate() { /* noop */ }
+
+   @Override
+   public void validate() { /* noop */ }
+
+   @Override
+   public void revalidate() { /* noop */ }
+
+   @Override
+   public void repaint( long tm, int x, int y, int width, int height ) { /* noop */ }
+
+   @Override
+   public void repaint( Rectangle r ) { /* noop */ }
+
+   @Override
+   public void repaint() { /* noop */ }
+
+   /**
+    * Only the text is announced, the button UI renders HTML from it, and with HTML text
+    * the font and foreground as well.
+    */
+   @Override
+   protected void firePropertyChange( String propertyName, Object oldValue, Object newValue ) {
+      if( "text".equals( propertyName )
+            || (("font".equals( propertyName ) || "foreground".equals( propertyName ))
+                  && oldValue != newValue && getClientProperty( BasicHTML.propertyKey ) != null) ) {
+         super.firePropertyChange( propertyName, oldValue, newValue );
+      }
+   }
+
+   @Override
+   public void firePropertyChange( String propertyName, boolean oldValue, boolean newValue ) { /* noop */ }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import java.awt.Cursor;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.JTable;
+
+/**
+ * Tracks the cell under the mouse for a whole table or list with a single listener,
+ * repainting only the cells the mouse leaves and enters. Shows the hand cursor over
+ * cells rendered by a {@link LinkCellRenderer}.
+ */
+final class LinkHoverTracker extends MouseAdapter {
+   private static final Object KEY = LinkHoverTracker.class;
+
+   private final JComponent component;
+   private int row = -1;
+   private int column = -1;
+   private Cursor cursor;
+   private boolean handCursor;
+
+   private LinkHoverTracker( JComponent component ) {
+      this.component = component;
+   }
+
+   static void install( JComponent component ) {
+      if( of( component ) == null ) {
+         LinkHoverTracker tracker = new LinkHoverTracker( component );
+         component.putClientProperty( KEY, tracker );
+         component.addMouseListener( tracker );
+         component.addMouseMotionListener( tracker );
+      }
+   }
+
+   static void uninstall( JComponent component ) {
+      LinkHoverTracker tracker = of( component );
+      if( tracker != null ) {
+         tracker.hover( -1, -1 );
+         component.removeMouseListener( tracker );
+         component.removeMouseMotionListener( tracker );
+         component.putClientProperty( KEY, null );
+      }
+   }
+
+   static LinkHoverTracker of( JComponent component ) {
+      Object tracker = component.getClientProperty( KEY );
+      return tracker instanceof LinkHoverTracker ? (LinkHoverTracker)tracker : null;
+   }
+
+   boolean isHovered( int row, int column ) {
+      return this.row == row && this.column == column;
+   }
+
+   @Override
+   public void mouseMoved( MouseEvent e ) {
+      if( component instanceof JTable ) {
+         JTable table = (JTable)component;
+         hover( table.rowAtPoint( e.getPoint() ), table.columnAtPoint( e.getPoint() ));
+      }
+      else if( component instanceof JList ) {
+         JList<?> list = (JList<?>)component;
+         int index = list.locationToIndex( e.getPoint() );
+         Rectangle bounds = index < 0 ? null : list.getCellBounds( index, index );
+         hover( bounds != null && bounds.contains( e.getPoint() ) ? index : -1, 0 );
+      }
+   }
+
+   @Override
+   public void mouseDragged( MouseEvent e ) {
+      mouseMoved( e );
+   }
+
+   @Override
+   public void mouseExited( MouseEvent e ) {
+      hover( -1, -1 );
+   }
+
+   private void hover( int newRow, int newColumn ) {
+      if( newRow < 0 || newColumn < 0 ) {
+         newRow = -1;
+         newColumn = -1;
+      }
+      if( newRow == row && newColumn == column ) {
+         return;
+      }
+      repaintCell( row, column );
+      row = newRow;
+      column = newColumn;
+      repaintCell( row, column );
+      updateCursor();
+   }
+
+   private void repaintCell( int row, int column ) {
+      if( row < 0 ) {
+         return;
+      }
+      Rectangle bounds = null;
+      if( component instanceof JTable ) {
+         JTable table = (JTable)component;
+         if( row < table.getRowCount() && column < table.getColumnCount() ) {
+            bounds = table.getCellRect( row, column, false );
+         }
+      }
+      else if( component instanceof JList ) {
+         bounds = ((JList<?>)component).getCellBounds( row, row );
+      }
+      if( bounds != null ) {
+         component.repaint( bounds );
+      }
+   }
+
+   private void updateCursor() {
+      boolean link = false;
+      if( row >= 0 ) {
+         if( component instanceof JTable ) {
+            link = ((JTable)component).getCellRenderer( row, column ) instanceof LinkCellRenderer;
+         }
+         else if( component instanceof JList ) {
+            link = ((JList<?>)component).getCellRenderer() instanceof LinkCellRenderer;
+         }
+      }
+      if( link && !handCursor ) {
+         cursor = component.isCursorSet() ? component.getCursor() : null;
+         component.setCursor( Cursor.getPredefinedCursor( Cursor.HAND_CURSOR ));
+         handCursor = true;
+      }
+      else if( !link && handCursor ) {
+         component.setCursor( cursor );
+         cursor = null;
+         handCursor = false;
+      }
+   }
+}
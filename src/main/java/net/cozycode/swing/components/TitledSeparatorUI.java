@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.components;
+
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.plaf.ComponentUI;
+import javax.swing.plaf.basic.BasicLabelUI;
+
+import net.cozycode.swing.text.TextMeasurer;
+
+/**
+ * The look of {@link JTitledSeparator}, the label followed by a line to the right edge.
+ * <p>
+ * A single stateless instance is shared by all separators. It is registered with the
+ * UIManager as "TitledSeparatorUI", so an application may substitute its own delegate.
+ * The cached title image of a separator is kept on the separator itself.
+ */
+public class TitledSeparatorUI extends BasicLabelUI {
+   private static final TitledSeparatorUI SHARED = new TitledSeparatorUI();
+   private static final int GAP = 5;
+   private static final int PAD = 2;
+
+   public static ComponentUI createUI( JComponent c ) {
+      return SHARED;
+   }
+
+   @Override
+   protected void paintEnabledText(JLabel lbl, Graphics g, String s, int textX, int textY) {
+      int titleWidth = paintCachedTitle( lbl, g, s, textX, textY );
+      if( titleWidth < 0 ) {
+         super.paintEnabledText(lbl, g, s, textX, textY);
+         titleWidth = (int)TextMeasurer.getShared().getWidth( g, s );
+      }
+      g.setColor( lbl.getForeground() );
+
+      Dimension size = lbl.getSize();
+      int lineStart = textX + titleWidth + GAP;
+      int lineStop = size.width - GAP;
+      int y = size.height / 2;            
+
+      g.drawLine( lineStart, y, lineStop, y );
+   }
+
+   @Override
+   protected void paintDisabledText(JLabel lbl, Graphics g, String s, int textX, int textY) {
+      if( paintCachedTitle( lbl, g, s, textX, textY ) < 0 ) {
+         super.paintDisabledText(lbl, g, s, textX, textY);
+      }
+   }
+
+   @Override
+   public void propertyChange( PropertyChangeEvent e ) {
+      String name = e.getPropertyName();
+      if( e.getSource() instanceof JTitledSeparator
+            && ("font".equals( name ) || "text".equals( name ) || "foreground".equals( name )
+                  || "background".equals( name ) || "enabled".equals( name ))) {
+         ((JTitledSeparator)e.getSource()).titleImage = null;
+      }
+      super.propertyChange( e );
+   }
+
+   /**
+    * @return the width of the title drawn from the separator's cached image, or -1 if it does not cache its title
+    */
+   private int paintCachedTitle( JLabel lbl, Graphics g, String s, int textX, int textY ) {
+      if( !(lbl instanceof JTitledSeparator) || !((JTitledSeparator)lbl).isTitleCached() || !(g instanceof Graphics2D) ) {
+         return -1;
+      }
+      JTitledSeparator separator = (JTitledSeparator)lbl;
+      Graphics2D g2 = (Graphics2D)g;
+      AffineTransform tx = g2.getTransform();
+      TitleImage title = separator.titleImage;
+      if( title == null || !title.matches( s, tx.getScaleX(), tx.getScaleY() )) {
+         title = renderTitle( separator, g2, s, tx.getScaleX(), tx.getScaleY() );
+         separator.titleImage = title;
+      }
+
+      if( title.scaleX == 1 && title.scaleY == 1 ) {
+         g2.drawImage( title.image, textX - PAD, textY - title.ascent, null );
+      }
+      else {
+         // Map image pixels one to one onto device pixels
+         AffineTransform at = AffineTransform.getTranslateInstance( textX - PAD, textY - title.ascent );
+         at.scale( 1 / title.scaleX, 1 / title.scaleY );
+         g2.drawImage( title.image, at, null );
+      }
+      return title.width;
+   }
+
+   /**
+    * Renders the title through the look and feel at the device scale of the graphics
+    */
+   private TitleImage renderTitle( JLabel lbl, Graphics2D g, String s, double scaleX, double scaleY ) {
+      FontMetrics fm = g.getFontMetrics( lbl.getFont() );
+      int titleWidth = (int)TextMeasurer.getShared().getWidth( lbl.getFont(), g.getFontRenderContext(), s );
+      int ascent = fm.getAscent();
+      int width = Math.max( 1, (int)Math.ceil( (titleWidth + 2 * PAD) * scaleX ));
+      int height = Math.max( 1, (int)Math.ceil( fm.getHeight() * scaleY ));
+
+      BufferedImage image = new BufferedImage( width, height, BufferedImage.TYPE_INT_ARGB );
+      Graphics2D ig = image.createGraphics();
+      try {
+         ig.setRenderingHints( g.getRenderingHints() );
+         ig.scale( scaleX, scaleY );
+         ig.setFont( lbl.getFont() );
+         if( lbl.isEnabled() ) {
+            super.paintEnabledText( lbl, ig, s, PAD, ascent );
+         }
+         else {
+            super.paintDisabledText( lbl, ig, s, PAD, ascent );
+         }
+      }
+      finally {
+         ig.dispose();
+      }
+      return new TitleImage( image, s, scaleX, scaleY, ascent, titleWidth );
+   }
+
+
+   /**
+    * A title rendered for one text and display scale
+    */
+   static final class TitleImage {
+      final BufferedImage image;
+      final String text;
+      final double scaleX;
+      final double scaleY;
+      final int ascent;
+      final int width;
+
+      TitleImage( BufferedImage image, String text, double scaleX, double scaleY, int ascent, int width ) {
+         this.image = image;
+         this.text = text;
+         this.scaleX = scaleX;
+         this.scaleY = scaleY;
+         this.ascent = ascent;
+         this.width = width;
+      }
+
+      boolean matches( String s, double sx, double sy ) {
+         return text.equals( s ) && scaleX == sx && scaleY == sy;
+      }
+   }
+}
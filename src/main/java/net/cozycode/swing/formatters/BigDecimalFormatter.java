@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Locale;
+
+import net.cozycode.swing.text.BigDecimalDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+public class BigDecimalFormatter extends NumericFormatter {
+   private static final long serialVersionUID = 1L;
+
+   public BigDecimalFormatter( boolean allowsNegative ) {
+      this( allowsNegative, BigDecimalDocumentFilter.UNLIMITED, BigDecimalDocumentFilter.UNLIMITED );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public BigDecimalFormatter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits values with the locale's decimal separator and minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public BigDecimalFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, BigDecimalDocumentFilter.UNLIMITED, BigDecimalDocumentFilter.UNLIMITED, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator, minus sign and grouping separator to use
+    */
+   public BigDecimalFormatter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( new BigDecimalDocumentFilter( allowsNegative, precision, scale, symbols ));
+      setCommitsOnValidEdit( true );
+      setValueClass( BigDecimal.class );
+   }
+
+   @Override
+   protected Object parse( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( symbols.isIncomplete( string )) {
+         return BigDecimal.ZERO;
+      }
+      try {
+         return new BigDecimal( symbols.normalize( string ));
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   /**
+    * Values are always written out in plain notation, the filter does not accept exponents.
+    */
+   @Override
+   protected String format( Number value ) throws ParseException {
+      if( value instanceof BigDecimal ) {
+         return getSymbols().localize( ((BigDecimal)value).toPlainString() );
+      }
+      try {
+         return getSymbols().localize( new BigDecimal( value.toString() ).toPlainString() );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( "Not a finite number: " + value, 0 );
+      }
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.util.Locale;
+
+import net.cozycode.swing.text.BigIntegerDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+public class BigIntegerFormatter extends NumericFormatter {
+   private static final long serialVersionUID = 1L;
+
+   public BigIntegerFormatter( boolean allowsNegative ) {
+      this( allowsNegative, 10 );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    */
+   public BigIntegerFormatter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits decimal values with the locale's minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public BigIntegerFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, 10, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    * @param symbols - The minus sign and grouping separator to use
+    */
+   public BigIntegerFormatter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      super( new BigIntegerDocumentFilter( allowsNegative, radix, symbols ));
+      setCommitsOnValidEdit( false );
+      setValueClass( BigInteger.class );
+   }
+
+   @Override
+   protected Object parse( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( "".equals( string ) || (string.length() == 1 && symbols.isMinus( string.charAt( 0 )))) {
+         return BigInteger.ZERO;
+      }
+      try {
+         return new BigInteger( symbols.normalize( string ), getRadix() );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   @Override
+   protected String format( Number value ) {
+      return getSymbols().localize( toBigInteger( value ).toString( getRadix() ));
+   }
+
+   private static BigInteger toBigInteger( Number value ) {
+      if( value instanceof BigInteger ) {
+         return (BigInteger)value;
+      }
+      if( value instanceof BigDecimal ) {
+         return ((BigDecimal)value).toBigInteger();
+      }
+      return BigInteger.valueOf( value.longValue() );
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+/**
+ * Shared boxed values for the numbers most commonly typed into numeric fields,
+ * a wider range than the JDK caches. Whole floats and doubles are cached too.
+ */
+final class Boxes {
+   private Boxes() { /* Static Singleton */ }
+
+   static final int LOW = -1024;
+   static final int HIGH = 4096;
+
+   static Integer box( int value ) {
+      return value >= LOW && value < HIGH ? Ints.CACHE[value - LOW] : Integer.valueOf( value );
+   }
+
+   static Long box( long value ) {
+      return value >= LOW && value < HIGH ? Longs.CACHE[(int)value - LOW] : Long.valueOf( value );
+   }
+
+   static Float box( float value ) {
+      int i = (int)value;
+      if( i == value && i >= LOW && i < HIGH && Float.floatToRawIntBits( value ) != NEGATIVE_ZERO_FLOAT ) {
+         return Floats.CACHE[i - LOW];
+      }
+      return Float.valueOf( value );
+   }
+
+   static Double box( double value ) {
+      int i = (int)value;
+      if( i == value && i >= LOW && i < HIGH && Double.doubleToRawLongBits( value ) != NEGATIVE_ZERO_DOUBLE ) {
+         return Doubles.CACHE[i - LOW];
+      }
+      return Double.valueOf( value );
+   }
+
+   private static final int NEGATIVE_ZERO_FLOAT = Float.floatToRawIntBits( -0f );
+   private static final long NEGATIVE_ZERO_DOUBLE = Double.doubleToRawLongBits( -0d );
+
+   // Holders, so only the caches which are used get filled
+
+   private static final class Ints {
+      static final Integer[] CACHE = new Integer[HIGH - LOW];
+      static {
+         for( int i = 0; i < CACHE.length; i++ ) {
+            CACHE[i] = Integer.valueOf( i + LOW );
+         }
+      }
+   }
+
+   private static final class Longs {
+      static final Long[] CACHE = new Long[HIGH - LOW];
+      static {
+         for( int i = 0; i < CACHE.length; i++ ) {
+            CACHE[i] = Long.valueOf( i + LOW );
+         }
+      }
+   }
+
+   private static final class Floats {
+      static final Float[] CACHE = new Float[HIGH - LOW];
+      static {
+         for( int i = 0; i < CACHE.length; i++ ) {
+            CACHE[i] = Float.valueOf( i + LOW );
+         }
+      }
+   }
+
+   private static final class Doubles {
+      static final Double[] CACHE = new Double[HIGH - LOW];
+      static {
+         for( int i = 0; i < CACHE.length; i++ ) {
+            CACHE[i] = Double.valueOf( i + LOW );
+         }
+      }
+   }
+}
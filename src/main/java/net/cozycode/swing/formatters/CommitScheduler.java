@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.JFormattedTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+/**
+ * Commits the edits of formatted text fields once typing pauses, so a burst of
+ * keystrokes produces a single "value" property change.
+ * <p>
+ * Each edit pushes the field's commit back by its delay. A single Swing timer serves
+ * every field attached to a scheduler, and is only running while a commit is pending.
+ * A field which loses focus is committed at once, so the value is never left behind
+ * the text when the user moves on. Edits which do not parse are not committed, nor is
+ * text which already displays the field's value, such as that written by setValue.
+ * <p>
+ * Schedulers are not thread safe and must be used on the event dispatch thread,
+ * edits made on other threads are handed over to it.
+ */
+public final class CommitScheduler {
+   private static final CommitScheduler SHARED = new CommitScheduler();
+   private static final Object KEY = CommitScheduler.class;
+
+   private final Set<Attachment> pending = new LinkedHashSet<Attachment>();
+   private final List<Attachment> due = new ArrayList<Attachment>();
+   private final Timer timer;
+   private long commits;
+   private long edits;
+
+   public CommitScheduler() {
+      timer = new Timer( 0, new ActionListener() {
+         @Override
+         public void actionPerformed( ActionEvent e ) {
+            fire();
+         }
+      });
+      timer.setRepeats( false );
+   }
+
+   /**
+    * @return the scheduler shared by the formatters' commit delay
+    */
+   public static CommitScheduler getShared() {
+      return SHARED;
+   }
+
+   /**
+    * Commits the field's edits once they have paused for <code>delay</code> milliseconds,
+    * replacing any delay it was attached with before.
+    */
+   public void attach( JFormattedTextField field, int delay ) {
+      if( delay < 0 ) {
+         throw new IllegalArgumentException( "delay must not be negative: " + delay );
+      }
+      Object property = field.getClientProperty( KEY );
+      if( property instanceof Attachment ) {
+         ((Attachment)property).scheduler().detach( field );
+      }
+      Attachment attachment = new Attachment( field, delay );
+      field.putClientProperty( KEY, attachment );
+      field.addFocusListener( attachment );
+      field.addPropertyChangeListener( "document", attachment );
+      attachment.listen( field.getDocument() );
+   }
+
+   /**
+    * Stops committing the field's edits, discarding a pending commit
+    */
+   public void detach( JFormattedTextField field ) {
+      Object property = field.getClientProperty( KEY );
+      if( property instanceof Attachment && ((Attachment)property).scheduler() == this ) {
+         Attachment attachment = (Attachment)property;
+         pending.remove( attachment );
+         attachment.listen( null );
+         field.removeFocusListener( attachment );
+         field.removePropertyChangeListener( "document", attachment );
+         field.putClientProperty( KEY, null );
+      }
+   }
+
+   /**
+    * Commits a pending edit of the field now
+    */
+   public void flush( JFormattedTextField field ) {
+      Object property = field.getClientProperty( KEY );
+      if( property instanceof Attachment && pending.remove( property )) {
+         commit( (Attachment)property );
+      }
+   }
+
+   /**
+    * Commits all pending edits now
+    */
+   public void flushAll() {
+      List<Attachment> all = new ArrayList<Attachment>( pending );
+      pending.clear();
+      timer.stop();
+      for( Attachment attachment : all ) {
+         commit( attachment );
+      }
+   }
+
+   public int getPendingCount() {
+      return pending.size();
+   }
+
+   /**
+    * @return the number of edits seen, which the number of commits is expected to trail by far
+    */
+   public long getEditCount() {
+      return edits;
+   }
+
+   public long getCommitCount() {
+      return commits;
+   }
+
+   private void schedule( Attachment attachment ) {
+      edits++;
+      attachment.deadline = System.nanoTime() + attachment.delay * 1000000L;
+      pending.add( attachment );
+      if( !timer.isRunning() ) {
+         restart();
+      }
+   }
+
+   private void fire() {
+      long now = System.nanoTime();
+      for( Iterator<Attachment> it = pending.iterator(); it.hasNext(); ) {
+         Attachment attachment = it.next();
+         if( attachment.deadline - now <= 0 ) {
+            it.remove();
+            due.add( attachment );
+         }
+      }
+      try {
+         for( int i = 0; i < due.size(); i++ ) {
+            commit( due.get( i ));
+         }
+      }
+      finally {
+         due.clear();
+         restart();
+      }
+   }
+
+   /**
+    * Runs the timer until the earliest pending deadline
+    */
+   private void restart() {
+      if( pending.isEmpty() ) {
+         timer.stop();
+         return;
+      }
+      long earliest = Long.MAX_VALUE;
+      long now = System.nanoTime();
+      for( Attachment attachment : pending ) {
+         earliest = Math.min( earliest, attachment.deadline - now );
+      }
+      timer.setInitialDelay( (int)Math.max( 0, (earliest + 999999) / 1000000 ));
+      timer.restart();
+   }
+
+   private void commit( Attachment attachment ) {
+      JFormattedTextField field = attachment.field;
+      if( field.getFormatter() == null || !field.isEditValid() ) {
+         return;
+      }
+      try {
+         // Text written by setValue or setText through the formatter is not an edit
+         if( field.getText().equals( field.getFormatter().valueToString( field.getValue() ))) {
+            return;
+         }
+         field.commitEdit();
+         commits++;
+      }
+      catch( ParseException e ) {
+         // The text is left as typed, the field reverts or commits it as usual when focus is lost
+      }
+   }
+
+
+   private final class Attachment implements DocumentListener, FocusListener, PropertyChangeListener, Runnable {
+      private final JFormattedTextField field;
+      private final int delay;
+      private Document document;
+      private long deadline;
+
+      Attachment( JFormattedTextField field, int delay ) {
+         this.field = field;
+         this.delay = delay;
+      }
+
+      CommitScheduler scheduler() {
+         return CommitScheduler.this;
+      }
+
+      void listen( Document doc ) {
+         if( document != null ) {
+            document.removeDocumentListener( this );
+         }
+         document = doc;
+         if( document != null ) {
+            document.addDocumentListener( this );
+         }
+      }
+
+      private void edited() {
+         if( EventQueue.isDispatchThread() ) {
+            run();
+         }
+         else {
+            EventQueue.invokeLater( this );
+         }
+      }
+
+      @Override
+      public void run() {
+         if( field.getClientProperty( KEY ) == this ) {
+            schedule( this );
+         }
+      }
+
+      @Override
+      public void insertUpdate( DocumentEvent e ) {
+         edited();
+      }
+
+      @Override
+      public void removeUpdate( DocumentEvent e ) {
+         edited();
+      }
+
+      @Override
+      public void changedUpdate( DocumentEvent e ) { /* noop */ }
+
+      @Override
+      public void focusGained( FocusEvent e ) { /* noop */ }
+
+      @Override
+      public void focusLost( FocusEvent e ) {
+         flush( field );
+      }
+
+      @Override
+      public void propertyChange( PropertyChangeEvent evt ) {
+         listen( field.getDocument() );
+      }
+   }
+}
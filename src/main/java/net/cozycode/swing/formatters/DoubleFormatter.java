@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Locale;
+
+import net.cozycode.swing.text.CompactNumericDocument;
+import net.cozycode.swing.text.DoubleDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+public class DoubleFormatter extends NumericFormatter {
+   private static final long serialVersionUID = 1L;
+
+   public DoubleFormatter( boolean allowsNegative ) {
+      this( allowsNegative, DoubleDocumentFilter.UNLIMITED, DoubleDocumentFilter.UNLIMITED );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public DoubleFormatter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits values with the locale's decimal separator and minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public DoubleFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, DoubleDocumentFilter.UNLIMITED, DoubleDocumentFilter.UNLIMITED, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator, minus sign and grouping separator to use
+    */
+   public DoubleFormatter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( new DoubleDocumentFilter( allowsNegative, precision, scale, symbols ));
+      setCommitsOnValidEdit( true );
+      setValueClass( Double.class );
+   }
+
+   /**
+    * Parses without boxing, skipping grouping separators. Short values are parsed without allocating.
+    * An empty string, a lone minus sign or decimal separator, or both, is 0.
+    */
+   public double stringToDouble( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( symbols.isIncomplete( string )) {
+         return 0d;
+      }
+      try {
+         return symbols.parseDouble( string );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   /**
+    * Formats without boxing in plain notation, as the filter does not accept exponents.
+    * Repeated values return the same String.
+    */
+   public String doubleToString( double value ) throws ParseException {
+      if( Double.isNaN( value ) || Double.isInfinite( value )) {
+         throw new ParseException( "Not a finite number: " + value, 0 );
+      }
+      String text = lastFormatted( Double.doubleToLongBits( value ) );
+      if( text == null ) {
+         String s = Double.toString( value );
+         text = rememberFormatted( Double.doubleToLongBits( value ), getSymbols().localize( s.indexOf( 'E' ) == -1 ? s : new BigDecimal( s ).toPlainString() ));
+      }
+      return text;
+   }
+
+   @Override
+   protected Object parse( String string ) throws ParseException {
+      return Boxes.box( stringToDouble( string ));
+   }
+
+   @Override
+   protected Object parse( CompactNumericDocument document, String string ) {
+      return Boxes.box( document.getDouble( getSymbols() ));
+   }
+
+   @Override
+   protected String format( Number value ) throws ParseException {
+      return doubleToString( value.doubleValue() );
+   }
+}
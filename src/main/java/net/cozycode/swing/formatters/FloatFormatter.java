@@ -16,36 +16,94 @@
 
 package net.cozycode.swing.formatters;
 
+import java.math.BigDecimal;
 import java.text.ParseException;
+import java.util.Locale;
 
-import javax.swing.text.DefaultFormatter;
-import javax.swing.text.DocumentFilter;
-
+import net.cozycode.swing.text.CompactNumericDocument;
 import net.cozycode.swing.text.FloatDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
 
-public class FloatFormatter extends DefaultFormatter {
+public class FloatFormatter extends NumericFormatter {
    private static final long serialVersionUID = 1L;
-   private final FloatDocumentFilter filter;
 
    public FloatFormatter( boolean allowsNegative ) {
-      this.filter = new FloatDocumentFilter( allowsNegative );
-      setAllowsInvalid( true );
+      this( allowsNegative, FloatDocumentFilter.UNLIMITED, FloatDocumentFilter.UNLIMITED );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public FloatFormatter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits values with the locale's decimal separator and minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public FloatFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, FloatDocumentFilter.UNLIMITED, FloatDocumentFilter.UNLIMITED, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator, minus sign and grouping separator to use
+    */
+   public FloatFormatter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( new FloatDocumentFilter( allowsNegative, precision, scale, symbols ));
       setCommitsOnValidEdit( true );
-      setOverwriteMode( false );
       setValueClass( Float.class );
    }
 
-   @Override
-   public Object stringToValue(String string) throws ParseException {
-      if( "".equals( string ) || "-".equals( string ) || ".".equals( string ) || "-.".equals( string )) {
+   /**
+    * Parses without boxing, skipping grouping separators. Short values are parsed without allocating.
+    * An empty string, a lone minus sign or decimal separator, or both, is 0.
+    */
+   public float stringToFloat( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( symbols.isIncomplete( string )) {
          return 0f;
       }
-      return Float.valueOf( string );
+      try {
+         return symbols.parseFloat( string );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   /**
+    * Formats without boxing in plain notation, as the filter does not accept exponents.
+    * Repeated values return the same String.
+    */
+   public String floatToString( float value ) throws ParseException {
+      if( Float.isNaN( value ) || Float.isInfinite( value )) {
+         throw new ParseException( "Not a finite number: " + value, 0 );
+      }
+      String text = lastFormatted( Float.floatToIntBits( value ) );
+      if( text == null ) {
+         String s = Float.toString( value );
+         text = rememberFormatted( Float.floatToIntBits( value ), getSymbols().localize( s.indexOf( 'E' ) == -1 ? s : new BigDecimal( s ).toPlainString() ));
+      }
+      return text;
    }
 
    @Override
-   protected DocumentFilter getDocumentFilter() {
-      return filter;
+   protected Object parse( String string ) throws ParseException {
+      return Boxes.box( stringToFloat( string ));
    }
 
+   @Override
+   protected Object parse( CompactNumericDocument document, String string ) {
+      return Boxes.box( document.getFloat( getSymbols() ));
+   }
+
+   @Override
+   protected String format( Number value ) throws ParseException {
+      return floatToString( value.floatValue() );
+   }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.text.ParseException;
+
+import javax.swing.JFormattedTextField.AbstractFormatter;
+import javax.swing.text.DefaultFormatter;
+
+import net.cozycode.swing.text.NumericSymbols;
+
+/**
+ * Displays the values of a numeric edit formatter with grouping separators.
+ * <p>
+ * The numeric filters do not accept grouping separators, so grouping is only shown
+ * while a field is not being edited. Use it as the display formatter of a
+ * DefaultFormatterFactory, as the numeric formatters' createFormatterFactory() does.
+ * Parsing is left to the edit formatter, which skips grouping separators.
+ */
+public class GroupingFormatter extends DefaultFormatter {
+   private static final long serialVersionUID = 1L;
+   private final AbstractFormatter editFormatter;
+   private final NumericSymbols symbols;
+   private final int radix;
+
+   /**
+    * @param editFormatter - The formatter which parses and writes ungrouped decimal values
+    * @param symbols - The grouping separator and size to display
+    */
+   public GroupingFormatter( AbstractFormatter editFormatter, NumericSymbols symbols ) {
+      this( editFormatter, symbols, 10 );
+   }
+
+   /**
+    * @param editFormatter - The formatter which parses and writes ungrouped values
+    * @param symbols - The grouping separator and size to display
+    * @param radix - The radix the edit formatter writes, only radix 10 is grouped
+    */
+   public GroupingFormatter( AbstractFormatter editFormatter, NumericSymbols symbols, int radix ) {
+      this.editFormatter = editFormatter;
+      this.symbols = symbols;
+      this.radix = radix;
+      setOverwriteMode( false );
+   }
+
+   @Override
+   public Object stringToValue(String string) throws ParseException {
+      return editFormatter.stringToValue( string );
+   }
+
+   @Override
+   public String valueToString(Object value) throws ParseException {
+      return symbols.group( editFormatter.valueToString( value ), radix );
+   }
+}
@@ -17,39 +17,89 @@
 package net.cozycode.swing.formatters;
 
 import java.text.ParseException;
+import java.util.Locale;
 
-import javax.swing.text.DefaultFormatter;
-import javax.swing.text.DocumentFilter;
-
+import net.cozycode.swing.text.CompactNumericDocument;
 import net.cozycode.swing.text.IntegerDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
 
-public class IntegerFormatter extends DefaultFormatter {
+public class IntegerFormatter extends NumericFormatter {
    private static final long serialVersionUID = 1L;
-   private final IntegerDocumentFilter filter;
 
    public IntegerFormatter( boolean allowsNegative ) {
-      this.filter = new IntegerDocumentFilter( allowsNegative );
-      setAllowsInvalid( true );
+      this( allowsNegative, 10 );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    */
+   public IntegerFormatter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits decimal values with the locale's minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public IntegerFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, 10, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    * @param symbols - The minus sign and grouping separator to use
+    */
+   public IntegerFormatter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      super( new IntegerDocumentFilter( allowsNegative, radix, symbols ));
       setCommitsOnValidEdit( false );
-      setOverwriteMode( false );
       setValueClass( Integer.class );
    }
 
-   @Override
-   public Object stringToValue(String string) throws ParseException {
-      if( "".equals( string ) || "-".equals( string )) {
+   /**
+    * Parses without boxing or allocating, skipping grouping separators.
+    * An empty string or a lone minus sign is 0.
+    */
+   public int stringToInt( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( "".equals( string ) || (string.length() == 1 && symbols.isMinus( string.charAt( 0 )))) {
          return 0;
       }
-      return super.stringToValue(string);
+      try {
+         return toInt( symbols.parseLong( string, getRadix() ), string );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   private static int toInt( long value, String string ) throws ParseException {
+      if( value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ) {
+         throw new ParseException( string, 0 );
+      }
+      return (int)value;
+   }
+
+   /**
+    * Formats without boxing, repeated values return the same String
+    */
+   public String intToString( int value ) {
+      String text = lastFormatted( value );
+      return text != null ? text : rememberFormatted( value, getSymbols().localize( Integer.toString( value, getRadix() )));
+   }
+
+   @Override
+   protected Object parse( String string ) throws ParseException {
+      return Boxes.box( stringToInt( string ));
    }
 
    @Override
-   public String valueToString(Object value) throws ParseException {
-      return super.valueToString(value);
+   protected Object parse( CompactNumericDocument document, String string ) throws ParseException {
+      return Boxes.box( toInt( document.getLong( getSymbols(), getRadix() ), string ));
    }
 
    @Override
-   protected DocumentFilter getDocumentFilter() {
-      return filter;
+   protected String format( Number value ) {
+      return intToString( value.intValue() );
    }
 }
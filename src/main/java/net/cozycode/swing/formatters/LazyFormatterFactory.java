@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.swing.JFormattedTextField;
+import javax.swing.JFormattedTextField.AbstractFormatter;
+import javax.swing.JFormattedTextField.AbstractFormatterFactory;
+
+/**
+ * A formatter factory, shared by any number of fields, which only gives a field an edit
+ * formatter and document filter while it has focus.
+ * <p>
+ * Unfocused fields share one display formatter which writes the value as plain text and
+ * holds no state. A field gaining focus leases an edit formatter from a pool, and returns
+ * it when it loses focus, so a form needs about as many edit formatters as it has fields
+ * focused at once, usually one. Editing behaves as with a dedicated formatter.
+ * Used on the event dispatch thread only.
+ */
+public final class LazyFormatterFactory extends AbstractFormatterFactory {
+
+   /** Creates the edit formatters of a factory */
+   public interface Source {
+      AbstractFormatter create();
+   }
+
+   private final Source source;
+   private final AbstractFormatter prototype;
+   private final DisplayFormatter display = new DisplayFormatter();
+   private final Deque<AbstractFormatter> idle = new ArrayDeque<AbstractFormatter>();
+   private int created;
+
+   public LazyFormatterFactory( Source source ) {
+      this.source = source;
+      this.prototype = source.create();
+      this.created = 1;
+   }
+
+   public static LazyFormatterFactory forIntegers( final boolean allowsNegative ) {
+      return new LazyFormatterFactory( new Source() {
+         @Override
+         public AbstractFormatter create() {
+            return new IntegerFormatter( allowsNegative );
+         }
+      });
+   }
+
+   public static LazyFormatterFactory forLongs( final boolean allowsNegative ) {
+      return new LazyFormatterFactory( new Source() {
+         @Override
+         public AbstractFormatter create() {
+            return new LongFormatter( allowsNegative );
+         }
+      });
+   }
+
+   public static LazyFormatterFactory forFloats( final boolean allowsNegative, final int precision, final int scale ) {
+      return new LazyFormatterFactory( new Source() {
+         @Override
+         public AbstractFormatter create() {
+            return new FloatFormatter( allowsNegative, precision, scale );
+         }
+      });
+   }
+
+   public static LazyFormatterFactory forDoubles( final boolean allowsNegative, final int precision, final int scale ) {
+      return new LazyFormatterFactory( new Source() {
+         @Override
+         public AbstractFormatter create() {
+            return new DoubleFormatter( allowsNegative, precision, scale );
+         }
+      });
+   }
+
+   public static LazyFormatterFactory forBigDecimals( final boolean allowsNegative, final int precision, final int scale ) {
+      return new LazyFormatterFactory( new Source() {
+         @Override
+         public AbstractFormatter create() {
+            return new BigDecimalFormatter( allowsNegative, precision, scale );
+         }
+      });
+   }
+
+   @Override
+   public AbstractFormatter getFormatter( JFormattedTextField tf ) {
+      Object leased = tf.getClientProperty( this );
+      if( tf.hasFocus() ) {
+         if( leased instanceof AbstractFormatter ) {
+            return (AbstractFormatter)leased;
+         }
+         AbstractFormatter formatter = idle.poll();
+         if( formatter == null ) {
+            formatter = source.create();
+            created++;
+         }
+         tf.putClientProperty( this, formatter );
+         return formatter;
+      }
+
+      if( leased instanceof AbstractFormatter ) {
+         // The field uninstalls it as soon as the display formatter is returned
+         tf.putClientProperty( this, null );
+         idle.push( (AbstractFormatter)leased );
+      }
+      return display;
+   }
+
+   /**
+    * @return the number of edit formatters created, including the one used for display
+    */
+   public int getCreatedCount() {
+      return created;
+   }
+
+   public int getIdleCount() {
+      return idle.size();
+   }
+
+
+   /**
+    * Writes values as the edit formatter would. Shared by every unfocused field,
+    * so installing only sets the text and keeps no reference to the field.
+    */
+   private final class DisplayFormatter extends AbstractFormatter {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public void install( JFormattedTextField ftf ) {
+         if( ftf != null ) {
+            try {
+               ftf.setText( valueToString( ftf.getValue() ));
+            }
+            catch( ParseException e ) {
+               ftf.setText( "" );
+            }
+         }
+      }
+
+      @Override
+      public void uninstall() { /* noop */ }
+
+      @Override
+      public Object stringToValue( String text ) throws ParseException {
+         return prototype.stringToValue( text );
+      }
+
+      @Override
+      public String valueToString( Object value ) throws ParseException {
+         return prototype.valueToString( value );
+      }
+   }
+}
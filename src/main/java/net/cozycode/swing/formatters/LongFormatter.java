@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.text.ParseException;
+import java.util.Locale;
+
+import net.cozycode.swing.text.CompactNumericDocument;
+import net.cozycode.swing.text.LongDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+public class LongFormatter extends NumericFormatter {
+   private static final long serialVersionUID = 1L;
+
+   public LongFormatter( boolean allowsNegative ) {
+      this( allowsNegative, 10 );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    */
+   public LongFormatter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Edits decimal values with the locale's minus sign, see {@link #createFormatterFactory()} for grouping
+    */
+   public LongFormatter( boolean allowsNegative, Locale locale ) {
+      this( allowsNegative, 10, NumericSymbols.forLocale( locale ));
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param radix - The radix values are edited and displayed in
+    * @param symbols - The minus sign and grouping separator to use
+    */
+   public LongFormatter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      super( new LongDocumentFilter( allowsNegative, radix, symbols ));
+      setCommitsOnValidEdit( false );
+      setValueClass( Long.class );
+   }
+
+   /**
+    * Parses without boxing or allocating, skipping grouping separators.
+    * An empty string or a lone minus sign is 0.
+    */
+   public long stringToLong( String string ) throws ParseException {
+      NumericSymbols symbols = getSymbols();
+      if( "".equals( string ) || (string.length() == 1 && symbols.isMinus( string.charAt( 0 )))) {
+         return 0L;
+      }
+      try {
+         return symbols.parseLong( string, getRadix() );
+      }
+      catch( NumberFormatException e ) {
+         throw new ParseException( string, 0 );
+      }
+   }
+
+   /**
+    * Formats without boxing, repeated values return the same String
+    */
+   public String longToString( long value ) {
+      String text = lastFormatted( value );
+      return text != null ? text : rememberFormatted( value, getSymbols().localize( Long.toString( value, getRadix() )));
+   }
+
+   @Override
+   protected Object parse( String string ) throws ParseException {
+      return Boxes.box( stringToLong( string ));
+   }
+
+   @Override
+   protected Object parse( CompactNumericDocument document, String string ) {
+      return Boxes.box( document.getLong( getSymbols(), getRadix() ));
+   }
+
+   @Override
+   protected String format( Number value ) {
+      return longToString( value.longValue() );
+   }
+}
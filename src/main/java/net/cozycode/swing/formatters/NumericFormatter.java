@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.formatters;
+
+import java.text.ParseException;
+
+import javax.swing.JFormattedTextField;
+import javax.swing.text.DefaultFormatter;
+import javax.swing.text.DefaultFormatterFactory;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+
+import net.cozycode.swing.text.CompactNumericDocument;
+import net.cozycode.swing.text.DecimalDocumentFilter;
+import net.cozycode.swing.text.IntegralDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+/**
+ * Base of the formatters which edit a number through one of the numeric document filters.
+ * <p>
+ * A field commits and redisplays the same value repeatedly, so the last value parsed
+ * and the last text written are remembered. Subclasses parse and write the number.
+ * When the field's document is a {@link CompactNumericDocument} holding the text being
+ * parsed, the value is read from the document, which parses at most once per edit.
+ * 
+ * @see IntegralDocumentFilter
+ * @see DecimalDocumentFilter
+ */
+public abstract class NumericFormatter extends DefaultFormatter {
+   private static final long serialVersionUID = 1L;
+   private final DocumentFilter filter;
+   private final NumericSymbols symbols;
+   private final int radix;
+   private int commitDelay = -1;
+
+   private transient String lastParsedText;
+   private transient Object lastParsed;
+   private transient String lastFormattedText;
+   private transient long lastFormatted;
+
+   protected NumericFormatter( IntegralDocumentFilter filter ) {
+      this( filter, filter.getSymbols(), filter.getRadix() );
+   }
+
+   protected NumericFormatter( DecimalDocumentFilter filter ) {
+      this( filter, filter.getSymbols(), 10 );
+   }
+
+   private NumericFormatter( DocumentFilter filter, NumericSymbols symbols, int radix ) {
+      this.filter = filter;
+      this.symbols = symbols;
+      this.radix = radix;
+      setAllowsInvalid( true );
+      setOverwriteMode( false );
+   }
+
+   /**
+    * @return the radix values are edited and displayed in, always 10 for decimals
+    */
+   public int getRadix() {
+      return radix;
+   }
+
+   public NumericSymbols getSymbols() {
+      return symbols;
+   }
+
+   /**
+    * @return a factory which displays values grouped and edits them with this formatter.
+    * Values in a radix other than 10 are displayed ungrouped.
+    */
+   public DefaultFormatterFactory createFormatterFactory() {
+      GroupingFormatter display = new GroupingFormatter( this, symbols, radix );
+      return new DefaultFormatterFactory( display, display, this );
+   }
+
+   /**
+    * Commits edits once typing has paused for <code>millis</code> through the shared
+    * {@link CommitScheduler}, and when the field loses focus. Negative disables it, the default.
+    */
+   public void setCommitDelay( int millis ) {
+      JFormattedTextField ftf = getFormattedTextField();
+      if( ftf != null && commitDelay >= 0 ) {
+         CommitScheduler.getShared().detach( ftf );
+      }
+      commitDelay = millis < 0 ? -1 : millis;
+      if( ftf != null && commitDelay >= 0 ) {
+         CommitScheduler.getShared().attach( ftf, commitDelay );
+      }
+   }
+
+   public int getCommitDelay() {
+      return commitDelay;
+   }
+
+   @Override
+   public void install( JFormattedTextField ftf ) {
+      super.install( ftf );
+      if( ftf != null && commitDelay >= 0 ) {
+         CommitScheduler.getShared().attach( ftf, commitDelay );
+      }
+   }
+
+   @Override
+   public void uninstall() {
+      JFormattedTextField ftf = getFormattedTextField();
+      if( ftf != null && commitDelay >= 0 ) {
+         CommitScheduler.getShared().detach( ftf );
+      }
+      if( ftf != null && filter instanceof DecimalDocumentFilter ) {
+         ((DecimalDocumentFilter)filter).detach( ftf.getDocument() );
+      }
+      super.uninstall();
+   }
+
+   /**
+    * Parses text the filter accepted
+    * 
+    * @return the value, an instance of the value class
+    */
+   protected abstract Object parse( String string ) throws ParseException;
+
+   /**
+    * Reads the value of a compact document which holds <code>string</code>.
+    * By default the string is parsed.
+    * 
+    * @throws NumberFormatException if the document does not hold a number
+    */
+   protected Object parse( CompactNumericDocument document, String string ) throws ParseException {
+      return parse( string );
+   }
+
+   /**
+    * Writes a value in the form the filter accepts
+    */
+   protected abstract String format( Number value ) throws ParseException;
+
+   /**
+    * @return the text last written for the value with these bits, or null
+    */
+   protected final String lastFormatted( long bits ) {
+      return lastFormattedText != null && bits == lastFormatted ? lastFormattedText : null;
+   }
+
+   /**
+    * Remembers the text written for the value with these bits
+    * 
+    * @return the text
+    */
+   protected final String rememberFormatted( long bits, String text ) {
+      lastFormatted = bits;
+      lastFormattedText = text;
+      return text;
+   }
+
+   @Override
+   public Object stringToValue( String string ) throws ParseException {
+      if( string != null && string.equals( lastParsedText )) {
+         return lastParsed;
+      }
+      Object value;
+      JFormattedTextField ftf = getFormattedTextField();
+      Document doc = ftf == null ? null : ftf.getDocument();
+      if( string != null && doc instanceof CompactNumericDocument && ((CompactNumericDocument)doc).contentEquals( string )) {
+         try {
+            value = parse( (CompactNumericDocument)doc, string );
+         }
+         catch( NumberFormatException e ) {
+            throw new ParseException( string, 0 );
+         }
+      }
+      else {
+         value = parse( string );
+      }
+      lastParsedText = string;
+      lastParsed = value;
+      return value;
+   }
+
+   @Override
+   public String valueToString( Object value ) throws ParseException {
+      if( value == null ) {
+         return "";
+      }
+      if( !(value instanceof Number) ) {
+         throw new ParseException( "Not a number: " + value, 0 );
+      }
+      return format( (Number)value );
+   }
+
+   @Override
+   protected DocumentFilter getDocumentFilter() {
+      return filter;
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.listeners;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.KeyboardFocusManager;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.swing.JComponent;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Applies focus policies, such as selecting all text, to every component which gains
+ * focus, from a single listener on the KeyboardFocusManager.
+ * <p>
+ * Nothing is registered on the components. The policy of a component is its
+ * {@link #POLICY_PROPERTY} client property if it has one, else the policy of its class
+ * or nearest superclass with one. Policies are resolved once per class.
+ * Once {@link #install() installed}, gaining focus allocates nothing.
+ */
+public final class FocusDispatcher {
+   private FocusDispatcher() { /* Static Singleton */ }
+
+   /** The client property holding a component's own {@link FocusPolicy}. */
+   public static final String POLICY_PROPERTY = "FocusDispatcher.policy";
+
+   public interface FocusPolicy {
+      /**
+       * Called on the event dispatch thread when <code>c</code> becomes the permanent focus owner
+       */
+      void focusGained( Component c );
+   }
+
+   public static final FocusPolicy NONE = new FocusPolicy() {
+      @Override
+      public void focusGained( Component c ) { /* noop */ }
+   };
+
+   /** Selects all the text of a text component, see {@link FocusListeners#SELECT_ALL}. */
+   public static final FocusPolicy SELECT_ALL = new FocusPolicy() {
+      @Override
+      public void focusGained( Component c ) {
+         if( c instanceof JTextComponent ) {
+            SELECT_ALL_TASK.post( (JTextComponent)c );
+         }
+      }
+   };
+
+   private static final ConcurrentMap<Class<?>, FocusPolicy> rules = new ConcurrentHashMap<Class<?>, FocusPolicy>();
+   private static final ConcurrentMap<Class<?>, FocusPolicy> resolved = new ConcurrentHashMap<Class<?>, FocusPolicy>();
+   private static final SelectAllTask SELECT_ALL_TASK = new SelectAllTask();
+   private static final Dispatcher DISPATCHER = new Dispatcher();
+   private static KeyboardFocusManager installedOn;
+
+   /**
+    * Starts applying policies application wide
+    */
+   public static synchronized void install() {
+      KeyboardFocusManager manager = KeyboardFocusManager.getCurrentKeyboardFocusManager();
+      if( installedOn != manager ) {
+         uninstall();
+         manager.addPropertyChangeListener( "permanentFocusOwner", DISPATCHER );
+         installedOn = manager;
+      }
+   }
+
+   public static synchronized void uninstall() {
+      if( installedOn != null ) {
+         installedOn.removePropertyChangeListener( "permanentFocusOwner", DISPATCHER );
+         installedOn = null;
+      }
+   }
+
+   /**
+    * Applies <code>policy</code> to components of <code>type</code> and its subclasses,
+    * unless a more specific class has its own policy. A null policy removes the rule.
+    */
+   public static void setPolicy( Class<? extends Component> type, FocusPolicy policy ) {
+      if( policy == null ) {
+         rules.remove( type );
+      }
+      else {
+         rules.put( type, policy );
+      }
+      resolved.clear();
+   }
+
+   /**
+    * Applies <code>policy</code> to one component, overriding the policy of its class
+    */
+   public static void setPolicy( JComponent c, FocusPolicy policy ) {
+      c.putClientProperty( POLICY_PROPERTY, policy );
+   }
+
+   /**
+    * @return the policy which applies to the component, NONE if no rule matches
+    */
+   public static FocusPolicy getPolicy( Component c ) {
+      if( c instanceof JComponent ) {
+         Object policy = ((JComponent)c).getClientProperty( POLICY_PROPERTY );
+         if( policy instanceof FocusPolicy ) {
+            return (FocusPolicy)policy;
+         }
+      }
+      Class<?> type = c.getClass();
+      FocusPolicy policy = resolved.get( type );
+      if( policy == null ) {
+         policy = NONE;
+         for( Class<?> t = type; t != null; t = t.getSuperclass() ) {
+            FocusPolicy rule = rules.get( t );
+            if( rule != null ) {
+               policy = rule;
+               break;
+            }
+         }
+         resolved.put( type, policy );
+      }
+      return policy;
+   }
+
+
+   private static final class Dispatcher implements PropertyChangeListener {
+      @Override
+      public void propertyChange( PropertyChangeEvent evt ) {
+         Object owner = evt.getNewValue();
+         if( owner instanceof Component ) {
+            getPolicy( (Component)owner ).focusGained( (Component)owner );
+         }
+      }
+   }
+
+   /**
+    * Selects the text later, or some text components reset the selection after focus is gained.
+    * At most one task is queued, a later focus change just retargets it.
+    */
+   private static final class SelectAllTask implements Runnable {
+      private JTextComponent target;
+
+      void post( JTextComponent c ) {
+         boolean queued = target != null;
+         target = c;
+         if( !queued ) {
+            EventQueue.invokeLater( this );
+         }
+      }
+
+      @Override
+      public void run() {
+         JTextComponent c = target;
+         target = null;
+         if( c != null ) {
+            c.selectAll();
+         }
+      }
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.table;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.text.ParseException;
+import java.util.EventObject;
+import java.util.Locale;
+
+import javax.swing.AbstractCellEditor;
+import javax.swing.BorderFactory;
+import javax.swing.JFormattedTextField;
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.TableCellEditor;
+
+import net.cozycode.swing.formatters.DoubleFormatter;
+import net.cozycode.swing.formatters.FloatFormatter;
+import net.cozycode.swing.formatters.IntegerFormatter;
+import net.cozycode.swing.text.DoubleDocumentFilter;
+import net.cozycode.swing.text.FloatDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+/**
+ * Edits the Integer, Float and Double columns of a table, one instance serving every
+ * column. Each type has a single field, formatted by an IntegerFormatter, FloatFormatter
+ * or DoubleFormatter, which is reused for every cell of that type.
+ * <p>
+ * Editing only stops once the text parses, so the model never receives a partial value.
+ */
+public class NumericCellEditor extends AbstractCellEditor implements TableCellEditor {
+   private static final long serialVersionUID = 1L;
+
+   private final JFormattedTextField intField;
+   private final JFormattedTextField floatField;
+   private final JFormattedTextField doubleField;
+   private JFormattedTextField field;
+
+   public NumericCellEditor() {
+      this( NumericSymbols.PLAIN );
+   }
+
+   public NumericCellEditor( Locale locale ) {
+      this( NumericSymbols.forLocale( locale ));
+   }
+
+   public NumericCellEditor( NumericSymbols symbols ) {
+      intField = createField( new IntegerFormatter( true, 10, symbols ));
+      floatField = createField( new FloatFormatter( true, FloatDocumentFilter.UNLIMITED, FloatDocumentFilter.UNLIMITED, symbols ));
+      doubleField = createField( new DoubleFormatter( true, DoubleDocumentFilter.UNLIMITED, DoubleDocumentFilter.UNLIMITED, symbols ));
+      field = intField;
+   }
+
+   private JFormattedTextField createField( JFormattedTextField.AbstractFormatter formatter ) {
+      JFormattedTextField ftf = new JFormattedTextField( formatter );
+      ftf.setHorizontalAlignment( SwingConstants.RIGHT );
+      ftf.setBorder( BorderFactory.createEmptyBorder( 0, 1, 0, 1 ));
+      ftf.addActionListener( new ActionListener() {
+         @Override
+         public void actionPerformed( ActionEvent e ) {
+            stopCellEditing();
+         }
+      });
+      return ftf;
+   }
+
+   /**
+    * Makes this the editor of the table's Integer, Float and Double columns
+    */
+   public void installIn( JTable table ) {
+      table.setDefaultEditor( Integer.class, this );
+      table.setDefaultEditor( Float.class, this );
+      table.setDefaultEditor( Double.class, this );
+   }
+
+   /**
+    * Mouse edits start on a double click
+    */
+   @Override
+   public boolean isCellEditable( EventObject e ) {
+      return !(e instanceof MouseEvent) || ((MouseEvent)e).getClickCount() >= 2;
+   }
+
+   @Override
+   public Object getCellEditorValue() {
+      return field.getValue();
+   }
+
+   @Override
+   public boolean stopCellEditing() {
+      try {
+         field.commitEdit();
+      }
+      catch( ParseException e ) {
+         return false;
+      }
+      return super.stopCellEditing();
+   }
+
+   @Override
+   public Component getTableCellEditorComponent( JTable table, Object value, boolean isSelected, int row, int column ) {
+      Class<?> type = table.getColumnClass( column );
+      field = type == Integer.class ? intField : type == Float.class ? floatField : doubleField;
+      field.setFont( table.getFont() );
+      field.setValue( value );
+      return field;
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.table;
+
+import java.awt.Component;
+import java.text.ParseException;
+import java.util.Locale;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
+
+import net.cozycode.swing.formatters.DoubleFormatter;
+import net.cozycode.swing.formatters.FloatFormatter;
+import net.cozycode.swing.formatters.IntegerFormatter;
+import net.cozycode.swing.text.DoubleDocumentFilter;
+import net.cozycode.swing.text.FloatDocumentFilter;
+import net.cozycode.swing.text.NumericSymbols;
+
+/**
+ * Renders the Integer, Float and Double columns of a table, right aligned.
+ * <p>
+ * Cells of a {@link PrimitiveTableModel} are read and formatted as primitives, without
+ * unboxing the value JTable passes in. Other models' values are formatted from the
+ * Number. Either way the text matches what {@link NumericCellEditor} edits.
+ */
+public class NumericCellRenderer extends DefaultTableCellRenderer {
+   private static final long serialVersionUID = 1L;
+
+   private final IntegerFormatter intFormatter;
+   private final FloatFormatter floatFormatter;
+   private final DoubleFormatter doubleFormatter;
+
+   public NumericCellRenderer() {
+      this( NumericSymbols.PLAIN );
+   }
+
+   public NumericCellRenderer( Locale locale ) {
+      this( NumericSymbols.forLocale( locale ));
+   }
+
+   public NumericCellRenderer( NumericSymbols symbols ) {
+      intFormatter = new IntegerFormatter( true, 10, symbols );
+      floatFormatter = new FloatFormatter( true, FloatDocumentFilter.UNLIMITED, FloatDocumentFilter.UNLIMITED, symbols );
+      doubleFormatter = new DoubleFormatter( true, DoubleDocumentFilter.UNLIMITED, DoubleDocumentFilter.UNLIMITED, symbols );
+      setHorizontalAlignment( RIGHT );
+   }
+
+   /**
+    * Makes this the renderer of the table's Integer, Float and Double columns
+    */
+   public void installIn( JTable table ) {
+      table.setDefaultRenderer( Integer.class, this );
+      table.setDefaultRenderer( Float.class, this );
+      table.setDefaultRenderer( Double.class, this );
+   }
+
+   @Override
+   public Component getTableCellRendererComponent( JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column ) {
+      // The value is formatted below, let super only pick the colors and border.
+      super.getTableCellRendererComponent( table, null, isSelected, hasFocus, row, column );
+      TableModel model = table.getModel();
+      if( model instanceof PrimitiveTableModel ) {
+         setText( format( (PrimitiveTableModel)model, table.convertRowIndexToModel( row ), table.convertColumnIndexToModel( column )));
+      }
+      else if( value instanceof Number ) {
+         setText( format( (Number)value ));
+      }
+      else {
+         setText( value == null ? "" : value.toString() );
+      }
+      return this;
+   }
+
+   private String format( PrimitiveTableModel model, int row, int column ) {
+      switch( model.getColumnType( column )) {
+         case INT: return intFormatter.intToString( model.getInt( row, column ));
+         case FLOAT: return formatFloat( model.getFloat( row, column ));
+         default: return formatDouble( model.getDouble( row, column ));
+      }
+   }
+
+   private String format( Number value ) {
+      if( value instanceof Integer || value instanceof Short || value instanceof Byte ) {
+         return intFormatter.intToString( value.intValue() );
+      }
+      if( value instanceof Float ) {
+         return formatFloat( value.floatValue() );
+      }
+      if( value instanceof Double ) {
+         return formatDouble( value.doubleValue() );
+      }
+      return value.toString();
+   }
+
+   private String formatFloat( float value ) {
+      try {
+         return floatFormatter.floatToString( value );
+      }
+      catch( ParseException e ) {
+         // NaN and infinities cannot be edited, show them as Java does.
+         return Float.toString( value );
+      }
+   }
+
+   private String formatDouble( double value ) {
+      try {
+         return doubleFormatter.doubleToString( value );
+      }
+      catch( ParseException e ) {
+         return Double.toString( value );
+      }
+   }
+}
@@ -0,0 +1,690 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.table;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.Segment;
+
+import net.cozycode.swing.table.PrimitiveTableModel.Type;
+import net.cozycode.swing.text.DecimalDocumentFilter;
+import net.cozycode.swing.text.DoubleDocumentFilter;
+import net.cozycode.swing.text.FloatDocumentFilter;
+import net.cozycode.swing.text.IntegerDocumentFilter;
+import net.cozycode.swing.text.IntegralDocumentFilter;
+
+/**
+ * Loads large CSV files of numbers into primitive arrays or a {@link PrimitiveTableModel}.
+ * <p>
+ * The file is memory mapped and split at line breaks into chunks which are parsed in
+ * parallel. Each field is decoded into a reused buffer and checked by the document filter
+ * of its column, through {@link IntegralDocumentFilter#parseLong(CharSequence)} and
+ * {@link DecimalDocumentFilter#parseDouble(CharSequence)}. No String is created per value,
+ * and an imported value is one the column's editor would accept, clamped the same way.
+ * <p>
+ * A row with a rejected value or the wrong number of fields is left out of the result
+ * and reported as a {@link Rejection}. Blank lines are skipped. Fields may be quoted, but
+ * not across line breaks. Files are read as UTF-8.
+ */
+public class NumericCsvImporter {
+   public static final int DEFAULT_MAX_REPORTED_REJECTIONS = 1000;
+
+   private static final int MIN_CHUNK_SIZE = 1 << 20;
+   private static final int MAX_CHUNK_SIZE = 1 << 30;
+   private static final int BLOCK_SIZE = 1 << 16;
+
+   private final byte delimiter;
+   private final List<String> names = new ArrayList<String>();
+   private final List<Type> types = new ArrayList<Type>();
+   private final List<DocumentFilter> filters = new ArrayList<DocumentFilter>();
+   private boolean header;
+   private int maxReportedRejections = DEFAULT_MAX_REPORTED_REJECTIONS;
+   private ExecutorService executor;
+
+   /**
+    * Creates an importer of comma separated fields
+    */
+   public NumericCsvImporter() {
+      this( ',' );
+   }
+
+   /**
+    * @param delimiter - The field separator, an ASCII character such as ';' or a tab
+    */
+   public NumericCsvImporter( char delimiter ) {
+      if( delimiter > 0x7f || delimiter == '\n' || delimiter == '\r' || delimiter == '"' ) {
+         throw new IllegalArgumentException( "Unsupported delimiter: " + delimiter );
+      }
+      this.delimiter = (byte)delimiter;
+   }
+
+   /**
+    * Adds an int column for the next field of each line
+    */
+   public NumericCsvImporter addColumn( String name, IntegerDocumentFilter filter ) {
+      return addColumn( name, Type.INT, filter );
+   }
+
+   /**
+    * Adds a float column for the next field of each line
+    */
+   public NumericCsvImporter addColumn( String name, FloatDocumentFilter filter ) {
+      return addColumn( name, Type.FLOAT, filter );
+   }
+
+   /**
+    * Adds a double column for the next field of each line
+    */
+   public NumericCsvImporter addColumn( String name, DoubleDocumentFilter filter ) {
+      return addColumn( name, Type.DOUBLE, filter );
+   }
+
+   /**
+    * Ignores the next field of each line, whatever it holds
+    */
+   public NumericCsvImporter skipField() {
+      return addColumn( null, null, null );
+   }
+
+   private NumericCsvImporter addColumn( String name, Type type, DocumentFilter filter ) {
+      names.add( name );
+      types.add( type );
+      filters.add( filter );
+      return this;
+   }
+
+   public boolean hasHeader() {
+      return header;
+   }
+
+   /**
+    * Whether the first line holds column titles and is skipped
+    */
+   public void setHeader( boolean header ) {
+      this.header = header;
+   }
+
+   public int getMaxReportedRejections() {
+      return maxReportedRejections;
+   }
+
+   /**
+    * Limits the rejections kept for reporting, rejected rows beyond the limit are only counted
+    */
+   public void setMaxReportedRejections( int max ) {
+      this.maxReportedRejections = max;
+   }
+
+   public ExecutorService getExecutor() {
+      return executor;
+   }
+
+   /**
+    * Parses chunks on <code>executor</code> instead of a pool created, and shut down, for each import
+    */
+   public void setExecutor( ExecutorService executor ) {
+      this.executor = executor;
+   }
+
+   /**
+    * Reads the file. This may take a while, call it away from the event dispatch thread.
+    */
+   public Result importFile( File file ) throws IOException {
+      RandomAccessFile raf = new RandomAccessFile( file, "r" );
+      try {
+         FileChannel channel = raf.getChannel();
+         long[] bounds = split( channel );
+         int chunkCount = bounds.length - 1;
+         ExecutorService pool = executor != null ? executor
+               : Executors.newFixedThreadPool( Math.max( 1, Math.min( chunkCount, Runtime.getRuntime().availableProcessors() )));
+         List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>( chunkCount );
+         try {
+            for( int i = 0; i < chunkCount; i++ ) {
+               final ByteBuffer bytes = channel.map( FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i] );
+               final boolean skipHeader = header && i == 0;
+               futures.add( pool.submit( new Callable<Chunk>() {
+                  @Override
+                  public Chunk call() {
+                     return parse( bytes, skipHeader );
+                  }
+               }));
+            }
+            Chunk[] chunks = new Chunk[chunkCount];
+            for( int i = 0; i < chunkCount; i++ ) {
+               chunks[i] = futures.get( i ).get();
+            }
+            return merge( chunks );
+         }
+         catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Import of " + file + " interrupted" );
+         }
+         catch( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if( cause instanceof RuntimeException ) {
+               throw (RuntimeException)cause;
+            }
+            if( cause instanceof Error ) {
+               throw (Error)cause;
+            }
+            throw new IOException( cause );
+         }
+         finally {
+            for( Future<Chunk> future : futures ) {
+               future.cancel( true );
+            }
+            if( pool != executor ) {
+               pool.shutdown();
+            }
+         }
+      }
+      finally {
+         raf.close();
+      }
+   }
+
+   /**
+    * Divides the file into chunks of whole lines, at least a megabyte long
+    * unless the file is smaller, a few per processor.
+    * 
+    * @return the offsets the chunks start at, followed by the size of the file
+    */
+   private static long[] split( FileChannel channel ) throws IOException {
+      long size = channel.size();
+      long count = Math.min( 4L * Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK_SIZE );
+      count = Math.max( count, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE );
+      count = Math.max( count, 1 );
+
+      long[] bounds = new long[(int)count + 1];
+      int n = 1;
+      ByteBuffer probe = ByteBuffer.allocate( 4096 );
+      for( int i = 1; i < count; i++ ) {
+         long bound = lineStart( channel, Math.max( size * i / count, bounds[n - 1] ), size, probe );
+         if( bound > bounds[n - 1] && bound < size ) {
+            bounds[n++] = bound;
+         }
+      }
+      bounds[n++] = size;
+      return n == bounds.length ? bounds : Arrays.copyOf( bounds, n );
+   }
+
+   /**
+    * @return the offset after the first line break at or after <code>from</code>, or <code>size</code>
+    */
+   private static long lineStart( FileChannel channel, long from, long size, ByteBuffer probe ) throws IOException {
+      long position = from;
+      while( position < size ) {
+         ((Buffer)probe).clear();
+         int read = channel.read( probe, position );
+         if( read <= 0 ) {
+            break;
+         }
+         for( int i = 0; i < read; i++ ) {
+            if( probe.get( i ) == '\n' ) {
+               return position + i + 1;
+            }
+         }
+         position += read;
+      }
+      return size;
+   }
+
+   /**
+    * Parses a chunk line by line. The mapped bytes are copied in blocks into a heap array,
+    * which is much cheaper to scan than reading the mapping a byte at a time.
+    */
+   private Chunk parse( ByteBuffer bytes, boolean skipHeader ) {
+      byte[] block = new byte[BLOCK_SIZE];
+      Chunk chunk = new Chunk( estimateRows( bytes, block ));
+      Segment field = new Segment( new char[64], 0, 0 );
+      int carried = 0;
+      while( true ) {
+         int length = Math.min( block.length - carried, bytes.remaining() );
+         bytes.get( block, carried, length );
+         int filled = carried + length;
+         int position = 0;
+         for( int end = 0; end < filled; end++ ) {
+            if( block[end] == '\n' ) {
+               parseLine( block, position, end, skipHeader, field, chunk );
+               position = end + 1;
+            }
+         }
+         if( !bytes.hasRemaining() ) {
+            if( position < filled ) {
+               parseLine( block, position, filled, skipHeader, field, chunk );
+            }
+            return chunk;
+         }
+         // Move the partial last line to the front, making room if it fills the block
+         carried = filled - position;
+         if( carried == block.length ) {
+            block = Arrays.copyOf( block, block.length * 2 );
+         }
+         else {
+            System.arraycopy( block, position, block, 0, carried );
+         }
+      }
+   }
+
+   /**
+    * Extrapolates the number of lines in the chunk from the length of its first block
+    */
+   private static int estimateRows( ByteBuffer bytes, byte[] block ) {
+      int limit = bytes.limit();
+      int sampled = Math.min( limit, block.length );
+      bytes.get( block, 0, sampled );
+      ((Buffer)bytes).rewind();
+      int lines = 1;
+      for( int i = 0; i < sampled; i++ ) {
+         if( block[i] == '\n' ) {
+            lines++;
+         }
+      }
+      if( sampled == limit ) {
+         return lines;
+      }
+      // Allow for the lines further down being a little shorter
+      return (int)Math.min( Integer.MAX_VALUE - 16, (long)lines * limit / sampled * 17 / 16 + 16 );
+   }
+
+   private void parseLine( byte[] block, int position, int end, boolean skipHeader, Segment field, Chunk chunk ) {
+      chunk.lines++;
+      if( end > position && block[end - 1] == '\r' ) {
+         end--;
+      }
+      if( end == position || (skipHeader && chunk.lines == 1) ) {
+         return;
+      }
+
+      int fieldCount = types.size();
+      int index = 0;
+      while( true ) {
+         boolean parsed = index < fieldCount && types.get( index ) != null;
+         boolean quoted = false;
+         field.count = 0;
+         int i = position;
+         for( ; i < end; i++ ) {
+            byte b = block[i];
+            if( b == '"' ) {
+               quoted = !quoted;
+            }
+            else if( b == delimiter && !quoted ) {
+               break;
+            }
+            else if( parsed ) {
+               i = decode( block, i, end, field );
+            }
+         }
+         if( parsed && !chunk.stage( index, field )) {
+            chunk.reject( index, "Invalid value \"" + (field.count > 40 ? field.subSequence( 0, 40 ) + "..." : field) + "\" for " + names.get( index ));
+            return;
+         }
+         index++;
+         if( i >= end ) {
+            break;
+         }
+         position = i + 1;
+      }
+      if( index != fieldCount ) {
+         chunk.reject( -1, "Expected " + fieldCount + " fields but found " + index );
+      }
+      else {
+         chunk.commit();
+      }
+   }
+
+   /**
+    * Appends the UTF-8 character starting at <code>i</code> to the field
+    * 
+    * @return the index of its last byte
+    */
+   private static int decode( byte[] block, int i, int end, Segment field ) {
+      int b = block[i];
+      char c;
+      if( b >= 0 ) {
+         c = (char)b;
+      }
+      else if( (b & 0xe0) == 0xc0 && i + 1 < end ) {
+         c = (char)(((b & 0x1f) << 6) | (block[++i] & 0x3f));
+      }
+      else if( (b & 0xf0) == 0xe0 && i + 2 < end ) {
+         c = (char)(((b & 0x0f) << 12) | ((block[i + 1] & 0x3f) << 6) | (block[i + 2] & 0x3f));
+         i += 2;
+      }
+      else {
+         // Nothing beyond the BMP is numeric, it only needs to fail the filter.
+         c = '\ufffd';
+      }
+      if( field.count == field.array.length ) {
+         field.array = Arrays.copyOf( field.array, field.count * 2 );
+      }
+      field.array[field.count++] = c;
+      return i;
+   }
+
+   private Result merge( Chunk[] chunks ) {
+      int rows = 0;
+      int rejected = 0;
+      for( Chunk chunk : chunks ) {
+         rows += chunk.rows;
+         rejected += chunk.rejected;
+      }
+
+      List<String> columnNames = new ArrayList<String>();
+      List<Type> columnTypes = new ArrayList<Type>();
+      List<Object> columns = new ArrayList<Object>();
+      for( int index = 0; index < types.size(); index++ ) {
+         Type type = types.get( index );
+         if( type == null ) {
+            continue;
+         }
+         Object column = type == Type.INT ? new int[rows] : type == Type.FLOAT ? new float[rows] : new double[rows];
+         int row = 0;
+         for( Chunk chunk : chunks ) {
+            System.arraycopy( chunk.column( index ), 0, column, row, chunk.rows );
+            row += chunk.rows;
+         }
+         columnNames.add( names.get( index ));
+         columnTypes.add( type );
+         columns.add( column );
+      }
+
+      // Chunks count their lines from 1, offset them by the lines of the chunks before
+      List<Rejection> rejections = new ArrayList<Rejection>();
+      int lines = 0;
+      for( Chunk chunk : chunks ) {
+         for( Rejection rejection : chunk.rejections ) {
+            if( rejections.size() < maxReportedRejections ) {
+               rejection.line += lines;
+               rejections.add( rejection );
+            }
+         }
+         lines += chunk.lines;
+      }
+      return new Result( columnNames, columnTypes, columns, rows, rejected, rejections );
+   }
+
+
+   /**
+    * The rows parsed from one chunk of the file, each column growing as rows are accepted.
+    * A row's values are staged until all of its fields are accepted.
+    */
+   private final class Chunk {
+      final Type[] columnTypes;
+      final int[][] ints;
+      final float[][] floats;
+      final double[][] doubles;
+      final long[] stagedLongs;
+      final double[] stagedDoubles;
+      final List<Rejection> rejections = new ArrayList<Rejection>();
+      int capacity;
+      int rows;
+      int lines;
+      int rejected;
+
+      Chunk( int capacity ) {
+         int fields = types.size();
+         this.columnTypes = types.toArray( new Type[fields] );
+         this.capacity = capacity;
+         ints = new int[fields][];
+         floats = new float[fields][];
+         doubles = new double[fields][];
+         stagedLongs = new long[fields];
+         stagedDoubles = new double[fields];
+         for( int index = 0; index < fields; index++ ) {
+            if( columnTypes[index] == Type.INT ) {
+               ints[index] = new int[capacity];
+            }
+            else if( columnTypes[index] == Type.FLOAT ) {
+               floats[index] = new float[capacity];
+            }
+            else if( columnTypes[index] == Type.DOUBLE ) {
+               doubles[index] = new double[capacity];
+            }
+         }
+      }
+
+      Object column( int index ) {
+         switch( columnTypes[index] ) {
+            case INT: return ints[index];
+            case FLOAT: return floats[index];
+            default: return doubles[index];
+         }
+      }
+
+      boolean stage( int index, Segment field ) {
+         try {
+            if( columnTypes[index] == Type.INT ) {
+               stagedLongs[index] = ((IntegralDocumentFilter)filters.get( index )).parseLong( field );
+            }
+            else {
+               stagedDoubles[index] = ((DecimalDocumentFilter)filters.get( index )).parseDouble( field );
+            }
+            return true;
+         }
+         catch( NumberFormatException e ) {
+            return false;
+         }
+      }
+
+      void commit() {
+         if( rows == capacity ) {
+            grow();
+         }
+         for( int index = 0; index < columnTypes.length; index++ ) {
+            Type type = columnTypes[index];
+            if( type == Type.INT ) {
+               ints[index][rows] = (int)stagedLongs[index];
+            }
+            else if( type == Type.FLOAT ) {
+               floats[index][rows] = (float)stagedDoubles[index];
+            }
+            else if( type == Type.DOUBLE ) {
+               doubles[index][rows] = stagedDoubles[index];
+            }
+         }
+         rows++;
+      }
+
+      private void grow() {
+         capacity += (capacity >> 1) + 16;
+         for( int index = 0; index < columnTypes.length; index++ ) {
+            if( ints[index] != null ) {
+               ints[index] = Arrays.copyOf( ints[index], capacity );
+            }
+            else if( floats[index] != null ) {
+               floats[index] = Arrays.copyOf( floats[index], capacity );
+            }
+            else if( doubles[index] != null ) {
+               doubles[index] = Arrays.copyOf( doubles[index], capacity );
+            }
+         }
+      }
+
+      void reject( int index, String message ) {
+         if( rejections.size() < maxReportedRejections ) {
+            rejections.add( new Rejection( lines, index, message ));
+         }
+         rejected++;
+      }
+   }
+
+
+   /**
+    * A line of the file which was left out of the result
+    */
+   public static final class Rejection {
+      private int line;
+      private final int field;
+      private final String message;
+
+      Rejection( int line, int field, String message ) {
+         this.line = line;
+         this.field = field;
+         this.message = message;
+      }
+
+      /**
+       * @return the line number, counting from 1 and including the header
+       */
+      public int getLine() {
+         return line;
+      }
+
+      /**
+       * @return the index of the rejected field, or -1 if the line had the wrong number of fields
+       */
+      public int getField() {
+         return field;
+      }
+
+      public String getMessage() {
+         return message;
+      }
+
+      @Override
+      public String toString() {
+         return "Line " + line + ": " + message;
+      }
+   }
+
+
+   /**
+    * The columns of an import, skipped fields aside, in primitive arrays
+    */
+   public static final class Result {
+      private final List<String> names;
+      private final List<Type> types;
+      private final List<Object> columns;
+      private final int rowCount;
+      private final int rejectedCount;
+      private final List<Rejection> rejections;
+
+      Result( List<String> names, List<Type> types, List<Object> columns, int rowCount, int rejectedCount, List<Rejection> rejections ) {
+         this.names = names;
+         this.types = types;
+         this.columns = columns;
+         this.rowCount = rowCount;
+         this.rejectedCount = rejectedCount;
+         this.rejections = Collections.unmodifiableList( rejections );
+      }
+
+      public int getRowCount() {
+         return rowCount;
+      }
+
+      public int getColumnCount() {
+         return columns.size();
+      }
+
+      public String getColumnName( int column ) {
+         return names.get( column );
+      }
+
+      public Type getColumnType( int column ) {
+         return types.get( column );
+      }
+
+      public int[] getInts( int column ) {
+         return (int[])typed( column, Type.INT );
+      }
+
+      public float[] getFloats( int column ) {
+         return (float[])typed( column, Type.FLOAT );
+      }
+
+      public double[] getDoubles( int column ) {
+         return (double[])typed( column, Type.DOUBLE );
+      }
+
+      private Object typed( int column, Type type ) {
+         if( types.get( column ) != type ) {
+            throw new IllegalArgumentException( "Column " + column + " holds " + types.get( column ) + " values, not " + type );
+         }
+         return columns.get( column );
+      }
+
+      /**
+       * @return the number of rejected lines, including those beyond the reporting limit
+       */
+      public int getRejectedCount() {
+         return rejectedCount;
+      }
+
+      /**
+       * @return the rejected lines in file order, up to the reporting limit
+       */
+      public List<Rejection> getRejections() {
+         return rejections;
+      }
+
+      /**
+       * Creates a heap model backed by the result's arrays, without copying them
+       */
+      public PrimitiveTableModel createTableModel() {
+         PrimitiveTableModel model = new PrimitiveTableModel( rowCount );
+         for( int column = 0; column < columns.size(); column++ ) {
+            Object values = columns.get( column );
+            if( values instanceof int[] ) {
+               model.addColumn( names.get( column ), (int[])values );
+            }
+            else if( values instanceof float[] ) {
+               model.addColumn( names.get( column ), (float[])values );
+            }
+            else {
+               model.addColumn( names.get( column ), (double[])values );
+            }
+         }
+         return model;
+      }
+
+      /**
+       * Copies the result into the same columns of <code>model</code> from <code>firstRow</code> on,
+       * firing one event per column. The model must already have the rows.
+       */
+      public void copyInto( PrimitiveTableModel model, int firstRow ) {
+         for( int column = 0; column < columns.size(); column++ ) {
+            Object values = columns.get( column );
+            if( values instanceof int[] ) {
+               model.setColumn( column, firstRow, (int[])values, 0, rowCount );
+            }
+            else if( values instanceof float[] ) {
+               model.setColumn( column, firstRow, (float[])values, 0, rowCount );
+            }
+            else {
+               model.setColumn( column, firstRow, (double[])values, 0, rowCount );
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.table;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model of int, float and double columns held in NIO buffers, on the heap or,
+ * for very large tables, in direct memory outside of it.
+ * <p>
+ * The typed getters and setters read and write cells without boxing, and the bulk column
+ * setters fire a single event however many rows they change. Only getValueAt and
+ * setValueAt, which JTable itself uses, box values. {@link NumericCellRenderer} reads
+ * the primitives directly and {@link NumericCellEditor} edits them.
+ * <p>
+ * Buffers are positioned, limited, cleared and rewound through {@link Buffer}, here and in the
+ * {@link NumericCsvImporter}. Java 9 added covariant overrides of those methods, which
+ * a later JDK would otherwise link against and Java 8 does not have.
+ */
+public class PrimitiveTableModel extends AbstractTableModel {
+   private static final long serialVersionUID = 1L;
+
+   public enum Type {
+      INT( Integer.class, 4 ), FLOAT( Float.class, 4 ), DOUBLE( Double.class, 8 );
+
+      private final Class<? extends Number> valueClass;
+      private final int bytes;
+
+      private Type( Class<? extends Number> valueClass, int bytes ) {
+         this.valueClass = valueClass;
+         this.bytes = bytes;
+      }
+
+      public Class<? extends Number> getValueClass() {
+         return valueClass;
+      }
+   }
+
+   private final boolean direct;
+   private final List<String> names = new ArrayList<String>();
+   private final List<Type> types = new ArrayList<Type>();
+   private final List<Buffer> buffers = new ArrayList<Buffer>();
+   private int rowCount;
+   private boolean editable = true;
+
+   /**
+    * Creates a model whose columns are held on the heap
+    */
+   public PrimitiveTableModel( int rowCount ) {
+      this( rowCount, false );
+   }
+
+   /**
+    * @param direct - Whether columns are held in direct buffers, outside of the heap
+    */
+   public PrimitiveTableModel( int rowCount, boolean direct ) {
+      if( rowCount < 0 ) {
+         throw new IllegalArgumentException( "rowCount must not be negative: " + rowCount );
+      }
+      this.rowCount = rowCount;
+      this.direct = direct;
+   }
+
+   public boolean isDirect() {
+      return direct;
+   }
+
+   /**
+    * Adds a column of zeros
+    * 
+    * @return the index of the new column
+    */
+   public int addColumn( String name, Type type ) {
+      return addColumn( name, type, allocate( type, rowCount ));
+   }
+
+   /**
+    * Adds a column backed by <code>values</code>, without copying them. The array stays
+    * the column's storage until {@link #setRowCount(int)} copies the column into new storage.
+    */
+   public int addColumn( String name, int[] values ) {
+      checkLength( values.length );
+      return addColumn( name, Type.INT, IntBuffer.wrap( values ));
+   }
+
+   public int addColumn( String name, float[] values ) {
+      checkLength( values.length );
+      return addColumn( name, Type.FLOAT, FloatBuffer.wrap( values ));
+   }
+
+   public int addColumn( String name, double[] values ) {
+      checkLength( values.length );
+      return addColumn( name, Type.DOUBLE, DoubleBuffer.wrap( values ));
+   }
+
+   private int addColumn( String name, Type type, Buffer buffer ) {
+      names.add( name );
+      types.add( type );
+      buffers.add( buffer );
+      fireTableStructureChanged();
+      return buffers.size() - 1;
+   }
+
+   private void checkLength( int length ) {
+      if( length != rowCount ) {
+         throw new IllegalArgumentException( "Column has " + length + " rows, the model " + rowCount );
+      }
+   }
+
+   private Buffer allocate( Type type, int rows ) {
+      if( !direct ) {
+         switch( type ) {
+            case INT: return IntBuffer.allocate( rows );
+            case FLOAT: return FloatBuffer.allocate( rows );
+            default: return DoubleBuffer.allocate( rows );
+         }
+      }
+      long size = (long)rows * type.bytes;
+      if( size > Integer.MAX_VALUE ) {
+         throw new IllegalArgumentException( rows + " rows of " + type + " values do not fit in a direct buffer" );
+      }
+      ByteBuffer bytes = ByteBuffer.allocateDirect( (int)size ).order( ByteOrder.nativeOrder() );
+      switch( type ) {
+         case INT: return bytes.asIntBuffer();
+         case FLOAT: return bytes.asFloatBuffer();
+         default: return bytes.asDoubleBuffer();
+      }
+   }
+
+   /**
+    * Changes the number of rows, keeping the values of the rows which remain and adding zeros.
+    * Every column is copied into new storage, so arrays passed to addColumn no longer back the model.
+    */
+   public void setRowCount( int rowCount ) {
+      if( rowCount < 0 ) {
+         throw new IllegalArgumentException( "rowCount must not be negative: " + rowCount );
+      }
+      int old = this.rowCount;
+      if( rowCount == old ) {
+         return;
+      }
+      int kept = Math.min( old, rowCount );
+      for( int col = 0; col < buffers.size(); col++ ) {
+         Type type = types.get( col );
+         Buffer from = buffers.get( col );
+         Buffer to = allocate( type, rowCount );
+         switch( type ) {
+            case INT: {
+               IntBuffer src = ((IntBuffer)from).duplicate();
+               ((Buffer)src).limit( kept );
+               ((IntBuffer)to).put( src );
+               break;
+            }
+            case FLOAT: {
+               FloatBuffer src = ((FloatBuffer)from).duplicate();
+               ((Buffer)src).limit( kept );
+               ((FloatBuffer)to).put( src );
+               break;
+            }
+            default: {
+               DoubleBuffer src = ((DoubleBuffer)from).duplicate();
+               ((Buffer)src).limit( kept );
+               ((DoubleBuffer)to).put( src );
+               break;
+            }
+         }
+         to.clear();
+         buffers.set( col, to );
+      }
+      this.rowCount = rowCount;
+      if( rowCount > old ) {
+         fireTableRowsInserted( old, rowCount - 1 );
+      }
+      else {
+         fireTableRowsDeleted( rowCount, old - 1 );
+      }
+   }
+
+   public Type getColumnType( int column ) {
+      return types.get( column );
+   }
+
+   public boolean isEditable() {
+      return editable;
+   }
+
+   public void setEditable( boolean editable ) {
+      this.editable = editable;
+   }
+
+
+   //////  TABLE MODEL  /////////////////////////////////////////////
+
+   @Override
+   public int getRowCount() {
+      return rowCount;
+   }
+
+   @Override
+   public int getColumnCount() {
+      return buffers.size();
+   }
+
+   @Override
+   public String getColumnName( int column ) {
+      return names.get( column );
+   }
+
+   @Override
+   public Class<?> getColumnClass( int column ) {
+      return types.get( column ).valueClass;
+   }
+
+   @Override
+   public boolean isCellEditable( int rowIndex, int columnIndex ) {
+      return editable;
+   }
+
+   @Override
+   public Object getValueAt( int row, int column ) {
+      switch( types.get( column )) {
+         case INT: return Integer.valueOf( getInt( row, column ));
+         case FLOAT: return Float.valueOf( getFloat( row, column ));
+         default: return Double.valueOf( getDouble( row, column ));
+      }
+   }
+
+   /**
+    * Stores a Number in the cell. Anything else, such as null from an emptied cell, is ignored
+    * and leaves the value unchanged.
+    */
+   @Override
+   public void setValueAt( Object value, int row, int column ) {
+      if( !(value instanceof Number) ) {
+         return;
+      }
+      Number number = (Number)value;
+      switch( types.get( column )) {
+         case INT:
+            setInt( row, column, number.intValue() );
+            break;
+         case FLOAT:
+            setFloat( row, column, number.floatValue() );
+            break;
+         default:
+            setDouble( row, column, number.doubleValue() );
+            break;
+      }
+   }
+
+
+   //////  PRIMITIVE ACCESS  ////////////////////////////////////////
+
+   /**
+    * Reads any column as an int, float and double columns are truncated
+    */
+   public int getInt( int row, int column ) {
+      Buffer buffer = buffers.get( column );
+      if( buffer instanceof IntBuffer ) {
+         return ((IntBuffer)buffer).get( row );
+      }
+      return (int)getDouble( row, column );
+   }
+
+   /**
+    * Reads any column as a float
+    */
+   public float getFloat( int row, int column ) {
+      Buffer buffer = buffers.get( column );
+      if( buffer instanceof FloatBuffer ) {
+         return ((FloatBuffer)buffer).get( row );
+      }
+      if( buffer instanceof IntBuffer ) {
+         return ((IntBuffer)buffer).get( row );
+      }
+      return (float)((DoubleBuffer)buffer).get( row );
+   }
+
+   /**
+    * Reads any column as a double
+    */
+   public double getDouble( int row, int column ) {
+      Buffer buffer = buffers.get( column );
+      if( buffer instanceof DoubleBuffer ) {
+         return ((DoubleBuffer)buffer).get( row );
+      }
+      if( buffer instanceof FloatBuffer ) {
+         return ((FloatBuffer)buffer).get( row );
+      }
+      return ((IntBuffer)buffer).get( row );
+   }
+
+   public void setInt( int row, int column, int value ) {
+      intColumn( column ).put( row, value );
+      fireTableCellUpdated( row, column );
+   }
+
+   public void setFloat( int row, int column, float value ) {
+      floatColumn( column ).put( row, value );
+      fireTableCellUpdated( row, column );
+   }
+
+   public void setDouble( int row, int column, double value ) {
+      doubleColumn( column ).put( row, value );
+      fireTableCellUpdated( row, column );
+   }
+
+
+   //////  BULK ACCESS  /////////////////////////////////////////////
+
+   /**
+    * Copies <code>values</code> into the column from <code>firstRow</code> on, firing a single event
+    */
+   public void setColumn( int column, int firstRow, int[] values, int offset, int length ) {
+      IntBuffer buffer = intColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.put( values, offset, length );
+      fireColumnUpdated( column, firstRow, length );
+   }
+
+   public void setColumn( int column, int firstRow, float[] values, int offset, int length ) {
+      FloatBuffer buffer = floatColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.put( values, offset, length );
+      fireColumnUpdated( column, firstRow, length );
+   }
+
+   public void setColumn( int column, int firstRow, double[] values, int offset, int length ) {
+      DoubleBuffer buffer = doubleColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.put( values, offset, length );
+      fireColumnUpdated( column, firstRow, length );
+   }
+
+   public void setColumn( int column, int[] values ) {
+      setColumn( column, 0, values, 0, values.length );
+   }
+
+   public void setColumn( int column, float[] values ) {
+      setColumn( column, 0, values, 0, values.length );
+   }
+
+   public void setColumn( int column, double[] values ) {
+      setColumn( column, 0, values, 0, values.length );
+   }
+
+   /**
+    * Copies rows of the column, from <code>firstRow</code> on, into <code>values</code>
+    */
+   public void getColumn( int column, int firstRow, int[] values, int offset, int length ) {
+      IntBuffer buffer = intColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.get( values, offset, length );
+   }
+
+   public void getColumn( int column, int firstRow, float[] values, int offset, int length ) {
+      FloatBuffer buffer = floatColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.get( values, offset, length );
+   }
+
+   public void getColumn( int column, int firstRow, double[] values, int offset, int length ) {
+      DoubleBuffer buffer = doubleColumn( column ).duplicate();
+      ((Buffer)buffer).position( firstRow );
+      buffer.get( values, offset, length );
+   }
+
+   /**
+    * Sets every row of the column to <code>value</code>, firing a single event
+    */
+   public void fillColumn( int column, double value ) {
+      Buffer buffer = buffers.get( column );
+      for( int row = 0; row < rowCount; row++ ) {
+         if( buffer instanceof IntBuffer ) {
+            ((IntBuffer)buffer).put( row, (int)value );
+         }
+         else if( buffer instanceof FloatBuffer ) {
+            ((FloatBuffer)buffer).put( row, (float)value );
+         }
+         else {
+            ((DoubleBuffer)buffer).put( row, value );
+         }
+      }
+      fireColumnUpdated( column, 0, rowCount );
+   }
+
+   private void fireColumnUpdated( int column, int firstRow, int length ) {
+      if( length > 0 ) {
+         fireTableChanged( new TableModelEvent( this, firstRow, firstRow + length - 1, column ));
+      }
+   }
+
+   private IntBuffer intColumn( int column ) {
+      return (IntBuffer)typed( column, Type.INT );
+   }
+
+   private FloatBuffer floatColumn( int column ) {
+      return (FloatBuffer)typed( column, Type.FLOAT );
+   }
+
+   private DoubleBuffer doubleColumn( int column ) {
+      return (DoubleBuffer)typed( column, Type.DOUBLE );
+   }
+
+   private Buffer typed( int column, Type type ) {
+      if( types.get( column ) != type ) {
+         throw new IllegalArgumentException( "Column " + column + " holds " + types.get( column ) + " values, not " + type );
+      }
+      return buffers.get( column );
+   }
+}
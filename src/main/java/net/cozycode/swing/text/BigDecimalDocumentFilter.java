@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+/**
+ * Restricts a document to an optionally negative decimal of any size.
+ */
+public class BigDecimalDocumentFilter extends DecimalDocumentFilter {
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    */
+   public BigDecimalDocumentFilter( boolean allowsNegative ) {
+      this( allowsNegative, UNLIMITED, UNLIMITED );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public BigDecimalDocumentFilter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator and minus sign to accept
+    */
+   public BigDecimalDocumentFilter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( allowsNegative, precision, scale, symbols );
+   }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+/**
+ * Restricts a document to an optionally negative integer of any size.
+ */
+public class BigIntegerDocumentFilter extends IntegralDocumentFilter {
+
+   public BigIntegerDocumentFilter( boolean allowsNegative ) {
+      this( allowsNegative, 10 );
+   }
+
+   public BigIntegerDocumentFilter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
+   }
+
+   public BigIntegerDocumentFilter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      super( allowsNegative, radix, symbols );
+   }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+/**
+ * Clean up for text pasted into the numeric document filters.
+ */
+final class BulkInsert {
+   private BulkInsert() { /* Static Singleton */ }
+
+   /**
+    * Reduces text copied from a spreadsheet or list to its first non blank cell.
+    * Cells are separated by tabs or line breaks. Whitespace and grouping separators
+    * within the cell and a leading '+' are dropped.
+    * 
+    * @return the cleaned cell, or the text itself if there was nothing to clean
+    */
+   static String firstCell( String text, NumericSymbols symbols ) {
+      int length = text.length();
+      int start = 0;
+      while( start < length && isWhitespace( text.charAt( start ))) {
+         start++;
+      }
+      int end = start;
+      while( end < length && !isCellSeparator( text.charAt( end ))) {
+         end++;
+      }
+      if( start < end && text.charAt( start ) == '+' ) {
+         int next = start + 1;
+         while( next < end && (isWhitespace( text.charAt( next )) || symbols.isGroupingSeparator( text.charAt( next )))) {
+            next++;
+         }
+         // A sign following the '+' is left for the filter to reject
+         if( next == end || !symbols.isMinus( text.charAt( next ))) {
+            start++;
+         }
+      }
+
+      StringBuilder cell = null;
+      for( int i = start; i < end; i++ ) {
+         char c = text.charAt( i );
+         if( isWhitespace( c ) || symbols.isGroupingSeparator( c )) {
+            if( cell == null ) {
+               cell = new StringBuilder( end - start );
+               cell.append( text, start, i );
+            }
+         }
+         else if( cell != null ) {
+            cell.append( c );
+         }
+      }
+      if( cell != null ) {
+         return cell.toString();
+      }
+      return start == 0 && end == length ? text : text.substring( start, end );
+   }
+
+   private static boolean isCellSeparator( char c ) {
+      return c == '\t' || c == '\n' || c == '\r';
+   }
+
+   static boolean isWhitespace( char c ) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\u00a0' || c == '\u202f';
+   }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.lang.ref.WeakReference;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * A document for short numeric fields, holding its text in a single char array with one
+ * element and no undo support, and caching the number it holds.
+ * <p>
+ * Use it with any of the numeric document filters in place of a PlainDocument. The text
+ * is handed to filters and views without copying, and {@link #getLong(NumericSymbols, int)},
+ * {@link #getDouble(NumericSymbols)} and {@link #getFloat(NumericSymbols)} parse the text
+ * at most once per edit. Text without digits, such as a lone minus sign, reads as 0.
+ * The primitive numeric formatters read their values from these caches.
+ */
+public class CompactNumericDocument extends AbstractDocument {
+   private static final long serialVersionUID = 1L;
+
+   private final Element root;
+   private final Element line;
+   private int stamp;
+
+   // Parsed value caches, valid while their stamp matches
+   private int longStamp = -1;
+   private NumericSymbols longSymbols;
+   private int longRadix;
+   private long longValue;
+   private int doubleStamp = -1;
+   private NumericSymbols doubleSymbols;
+   private double doubleValue;
+   private int floatStamp = -1;
+   private NumericSymbols floatSymbols;
+   private float floatValue;
+
+   public CompactNumericDocument() {
+      super( new CharArrayContent( 16 ));
+      BranchElement branch = (BranchElement)createBranchElement( null, null );
+      line = createLeafElement( branch, null, 0, 1 );
+      branch.replace( 0, 0, new Element[] { line } );
+      root = branch;
+   }
+
+   @Override
+   public Element getDefaultRootElement() {
+      return root;
+   }
+
+   @Override
+   public Element getParagraphElement( int pos ) {
+      return line;
+   }
+
+   @Override
+   protected void insertUpdate( DefaultDocumentEvent chng, AttributeSet attr ) {
+      stamp++;
+      super.insertUpdate( chng, attr );
+   }
+
+   @Override
+   protected void removeUpdate( DefaultDocumentEvent chng ) {
+      stamp++;
+      super.removeUpdate( chng );
+   }
+
+   /**
+    * @return the integer held by the document
+    * @throws NumberFormatException if the text is not an integer in the radix or overflows a long
+    */
+   public long getLong( NumericSymbols symbols, int radix ) {
+      readLock();
+      try {
+         if( longStamp != stamp || longSymbols != symbols || longRadix != radix ) {
+            CharSequence text = chars();
+            long value = symbols.isIncomplete( text ) ? 0L : symbols.parseLong( text, radix );
+            longValue = value;
+            longSymbols = symbols;
+            longRadix = radix;
+            longStamp = stamp;
+         }
+         return longValue;
+      }
+      finally {
+         readUnlock();
+      }
+   }
+
+   /**
+    * @return the decimal held by the document
+    * @throws NumberFormatException if the text is not a decimal number
+    */
+   public double getDouble( NumericSymbols symbols ) {
+      readLock();
+      try {
+         if( doubleStamp != stamp || doubleSymbols != symbols ) {
+            CharSequence text = chars();
+            double value = symbols.isIncomplete( text ) ? 0d : symbols.parseDouble( text );
+            doubleValue = value;
+            doubleSymbols = symbols;
+            doubleStamp = stamp;
+         }
+         return doubleValue;
+      }
+      finally {
+         readUnlock();
+      }
+   }
+
+   /**
+    * @return the decimal held by the document, as a float
+    * @throws NumberFormatException if the text is not a decimal number
+    */
+   public float getFloat( NumericSymbols symbols ) {
+      readLock();
+      try {
+         if( floatStamp != stamp || floatSymbols != symbols ) {
+            CharSequence text = chars();
+            float value = symbols.isIncomplete( text ) ? 0f : symbols.parseFloat( text );
+            floatValue = value;
+            floatSymbols = symbols;
+            floatStamp = stamp;
+         }
+         return floatValue;
+      }
+      finally {
+         readUnlock();
+      }
+   }
+
+   /**
+    * @return whether the document holds exactly <code>text</code>, compared without copying the document
+    */
+   public boolean contentEquals( CharSequence text ) {
+      readLock();
+      try {
+         CharSequence chars = chars();
+         int length = chars.length();
+         if( text.length() != length ) {
+            return false;
+         }
+         for( int i = 0; i < length; i++ ) {
+            if( text.charAt( i ) != chars.charAt( i )) {
+               return false;
+            }
+         }
+         return true;
+      }
+      finally {
+         readUnlock();
+      }
+   }
+
+   private CharSequence chars() {
+      return ((CharArrayContent)getContent()).text();
+   }
+
+
+   /**
+    * Document content in a single array, with the implied break at the end. Positions
+    * follow StringContent: they move with text inserted before them, and one at offset 0
+    * stays there. Positions no longer referenced are dropped on the next edit.
+    */
+   static final class CharArrayContent implements AbstractDocument.Content {
+      private char[] chars;
+      private int count;
+      private MarkReference[] marks = new MarkReference[4];
+      private int markCount;
+      private final Text text = new Text();
+
+      CharArrayContent( int capacity ) {
+         chars = new char[Math.max( capacity, 1 )];
+         chars[0] = '\n';
+         count = 1;
+      }
+
+      /**
+       * @return the document text, a view which is only valid until the next edit
+       */
+      CharSequence text() {
+         return text;
+      }
+
+      @Override
+      public Position createPosition( int offset ) throws BadLocationException {
+         if( offset < 0 || offset > count ) {
+            throw new BadLocationException( "Invalid position", offset );
+         }
+         Mark mark = new Mark( offset );
+         if( markCount == marks.length ) {
+            purge();
+            if( markCount == marks.length ) {
+               MarkReference[] grown = new MarkReference[marks.length * 2];
+               System.arraycopy( marks, 0, grown, 0, markCount );
+               marks = grown;
+            }
+         }
+         marks[markCount++] = new MarkReference( mark );
+         return mark;
+      }
+
+      @Override
+      public int length() {
+         return count;
+      }
+
+      @Override
+      public UndoableEdit insertString( int where, String str ) throws BadLocationException {
+         if( where < 0 || where >= count ) {
+            throw new BadLocationException( "Invalid insert", where );
+         }
+         int length = str.length();
+         if( count + length > chars.length ) {
+            char[] grown = new char[Math.max( chars.length * 2, count + length )];
+            System.arraycopy( chars, 0, grown, 0, count );
+            chars = grown;
+         }
+         System.arraycopy( chars, where, chars, where + length, count - where );
+         str.getChars( 0, length, chars, where );
+         count += length;
+
+         int from = where == 0 ? 1 : where;
+         for( int i = 0; i < markCount; i++ ) {
+            Mark mark = marks[i].get();
+            if( mark != null && mark.offset >= from ) {
+               mark.offset += length;
+            }
+         }
+         purge();
+         return null;
+      }
+
+      @Override
+      public UndoableEdit remove( int where, int nitems ) throws BadLocationException {
+         if( where < 0 || nitems < 0 || where + nitems >= count ) {
+            throw new BadLocationException( "Invalid remove", where + nitems );
+         }
+         System.arraycopy( chars, where + nitems, chars, where, count - where - nitems );
+         count -= nitems;
+
+         int end = where + nitems;
+         for( int i = 0; i < markCount; i++ ) {
+            Mark mark = marks[i].get();
+            if( mark != null ) {
+               if( mark.offset >= end ) {
+                  mark.offset -= nitems;
+               }
+               else if( mark.offset >= where ) {
+                  mark.offset = where;
+               }
+            }
+         }
+         purge();
+         return null;
+      }
+
+      @Override
+      public String getString( int where, int len ) throws BadLocationException {
+         check( where, len );
+         return new String( chars, where, len );
+      }
+
+      @Override
+      public void getChars( int where, int len, Segment txt ) throws BadLocationException {
+         check( where, len );
+         txt.array = chars;
+         txt.offset = where;
+         txt.count = len;
+      }
+
+      private void check( int where, int len ) throws BadLocationException {
+         if( where < 0 || len < 0 || where + len > count ) {
+            throw new BadLocationException( "Invalid range", where + len );
+         }
+      }
+
+      private void purge() {
+         int kept = 0;
+         for( int i = 0; i < markCount; i++ ) {
+            if( marks[i].get() != null ) {
+               marks[kept++] = marks[i];
+            }
+         }
+         for( int i = kept; i < markCount; i++ ) {
+            marks[i] = null;
+         }
+         markCount = kept;
+      }
+
+      /**
+       * The text without the implied break
+       */
+      private final class Text implements CharSequence {
+         @Override
+         public int length() {
+            return count - 1;
+         }
+
+         @Override
+         public char charAt( int index ) {
+            if( index < 0 || index >= count - 1 ) {
+               throw new IndexOutOfBoundsException( String.valueOf( index ));
+            }
+            return chars[index];
+         }
+
+         @Override
+         public CharSequence subSequence( int start, int end ) {
+            return new String( chars, start, end - start );
+         }
+
+         @Override
+         public String toString() {
+            return new String( chars, 0, count - 1 );
+         }
+      }
+   }
+
+
+   private static final class Mark implements Position {
+      int offset;
+
+      Mark( int offset ) {
+         this.offset = offset;
+      }
+
+      @Override
+      public int getOffset() {
+         return offset;
+      }
+   }
+
+
+   /**
+    * Not generic, so the content can keep an array of them
+    */
+   private static final class MarkReference extends WeakReference<Mark> {
+      MarkReference( Mark mark ) {
+         super( mark );
+      }
+   }
+}
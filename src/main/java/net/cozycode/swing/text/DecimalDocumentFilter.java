@@ -0,0 +1,805 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.math.BigDecimal;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.Segment;
+
+/**
+ * Restricts a document to an optionally negative decimal number, with an optional
+ * limit on the total number of digits (precision) and on the digits after the
+ * decimal point (scale). Leading zeros count towards the precision.
+ * <p>
+ * The position of the sign and decimal point and the digit counts on either side
+ * are kept in a small state object attached to each document, which a document
+ * listener keeps current. Validating an edit therefore only looks at the inserted
+ * text, and the document is only read in full when it holds text this filter would
+ * not have accepted, for example text set before the filter was installed.
+ * <p>
+ * Bounded filters replace the text with the largest magnitude when an edit would
+ * overflow, and with the smallest non zero magnitude when it would underflow.
+ * The magnitude is only examined when the digit counts put it near a bound, and
+ * then only the digits which can decide the comparison are parsed.
+ * <p>
+ * With {@link #setBulkInsertEnabled(boolean) bulk insert} enabled, multi character
+ * insertions such as a cell pasted from a spreadsheet are cleaned up first and
+ * fraction digits beyond the scale are dropped rather than rejecting the paste.
+ * <p>
+ * The decimal separator and minus sign come from the filter's {@link NumericSymbols}.
+ * Grouping separators are never part of the edited text; they are dropped from bulk
+ * insertions and only shown by display formatters.
+ * 
+ * @see FloatDocumentFilter
+ * @see DoubleDocumentFilter
+ * @see BigDecimalDocumentFilter
+ */
+public abstract class DecimalDocumentFilter extends DocumentFilter {
+   public static final int UNLIMITED = Integer.MAX_VALUE;
+
+   private final boolean allowsNegative;
+   private final int precision;
+   private final int scale;
+   private final NumericSymbols symbols;
+
+   private final BigDecimal max;
+   private final BigDecimal min;
+   private final String maxText;
+   private final String minText;
+   private final String negativeMaxText;
+   private final String negativeMinText;
+   private final int overflowDigits;
+   private final int underflowDigits;
+   private final double maxMagnitude;
+   private final double minMagnitude;
+   private final Segment segment = new Segment();
+   private boolean bulkInsertEnabled;
+
+   // Magnitude scan state, filters only run on the thread holding the document lock.
+   private final char[] integerBuffer;
+   private final char[] fractionBuffer;
+   private int integerCount;
+   private int fractionCount;
+   private boolean fractionNonZero;
+   private boolean inFraction;
+   private boolean negative;
+
+   /**
+    * Creates an unbounded filter
+    */
+   protected DecimalDocumentFilter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN, null, null );
+   }
+
+   /**
+    * Creates an unbounded filter using the given symbols
+    */
+   protected DecimalDocumentFilter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      this( allowsNegative, precision, scale, symbols, null, null );
+   }
+
+   /**
+    * Creates a filter bounded in magnitude by [min, max], zero aside.
+    * 
+    * @param max - the largest magnitude, used as is when clamping
+    * @param min - the smallest non zero magnitude, used as is when clamping
+    */
+   protected DecimalDocumentFilter( boolean allowsNegative, int precision, int scale, BigDecimal max, BigDecimal min ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN, max, min );
+   }
+
+   /**
+    * Creates a filter bounded in magnitude by [min, max], zero aside, using the given symbols
+    */
+   protected DecimalDocumentFilter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols, BigDecimal max, BigDecimal min ) {
+      if( precision <= 0 || scale < 0 ) {
+         throw new IllegalArgumentException( "Invalid precision or scale: " + precision + ", " + scale );
+      }
+      this.allowsNegative = allowsNegative;
+      this.precision = precision;
+      this.scale = scale;
+      this.symbols = symbols;
+      this.max = max;
+      this.min = min;
+      this.maxText = max == null ? null : symbols.localize( max.toPlainString() );
+      this.minText = min == null ? null : symbols.localize( min.toPlainString() );
+      this.negativeMaxText = max == null ? null : symbols.localize( max.negate().toPlainString() );
+      this.negativeMinText = min == null ? null : symbols.localize( min.negate().toPlainString() );
+
+      // Values with fewer integer digits cannot overflow, values with fewer fraction digits cannot underflow.
+      this.overflowDigits = max == null ? UNLIMITED : max.precision() - max.scale();
+      this.underflowDigits = min == null ? UNLIMITED : min.scale() - min.precision() + 1;
+      this.maxMagnitude = max == null ? Double.POSITIVE_INFINITY : max.doubleValue();
+      this.minMagnitude = min == null ? 0 : min.doubleValue();
+      this.integerBuffer = new char[max == null ? 0 : overflowDigits];
+      this.fractionBuffer = new char[min == null ? 0 : min.scale()];
+      this.segment.setPartialReturn( true );
+   }
+
+   public boolean allowsNegative() {
+      return allowsNegative;
+   }
+
+   public int getPrecision() {
+      return precision;
+   }
+
+   public int getScale() {
+      return scale;
+   }
+
+   public NumericSymbols getSymbols() {
+      return symbols;
+   }
+
+   public boolean isBulkInsertEnabled() {
+      return bulkInsertEnabled;
+   }
+
+   /**
+    * When enabled, text inserted in one go is reduced to its first tab or line separated
+    * cell with whitespace, grouping separators and a leading '+' dropped, and digits beyond the scale are
+    * truncated instead of rejecting the insertion.
+    */
+   public void setBulkInsertEnabled( boolean enabled ) {
+      this.bulkInsertEnabled = enabled;
+   }
+
+   /**
+    * Drops the state kept on a document this filter edited, along with its document listener.
+    * Call once the filter is replaced or uninstalled, the numeric formatters do so when uninstalled.
+    */
+   public void detach( Document doc ) {
+      State.detach( doc );
+   }
+
+   /**
+    * Applies this filter's rules to a complete value, such as a field read from a file,
+    * without a document. The text is cleaned up like a {@link #setBulkInsertEnabled(boolean) bulk insertion},
+    * fraction digits beyond the scale are dropped and a magnitude out of bounds is clamped
+    * as an edit would be.
+    * <p>
+    * Unlike editing, this may be called from any thread. Only text which needs cleaning
+    * up or truncating is copied.
+    * 
+    * @throws NumberFormatException if the filter would reject the text, or it holds no digits
+    */
+   public double parseDouble( CharSequence text ) {
+      int length = text.length();
+      boolean negative = false;
+      boolean decimal = false;
+      boolean copy = false;
+      boolean plus = false;
+      int integerDigits = 0;
+      int fractionDigits = 0;
+      int kept = 0;
+      int end = length;
+      for( int i = 0; i < length; i++ ) {
+         char c = text.charAt( i );
+         if( BulkInsert.isWhitespace( c )) {
+            copy = true;
+            continue;
+         }
+         if( kept == 0 && c == '+' && !plus ) {
+            plus = copy = true;
+            continue;
+         }
+         if( symbols.isGroupingSeparator( c )) {
+            continue;
+         }
+         if( kept++ == 0 && !plus && symbols.isMinus( c )) {
+            if( !allowsNegative ) {
+               throw new NumberFormatException( text.toString() );
+            }
+            negative = true;
+         }
+         else if( symbols.isDecimalSeparator( c )) {
+            if( decimal ) {
+               throw new NumberFormatException( text.toString() );
+            }
+            decimal = true;
+         }
+         else if( c < '0' || c > '9' ) {
+            throw new NumberFormatException( text.toString() );
+         }
+         else if( !decimal ) {
+            integerDigits++;
+         }
+         else if( fractionDigits < scale ) {
+            fractionDigits++;
+         }
+         else if( end == length ) {
+            // Keep scanning so a malformed tail is still rejected
+            end = i;
+            copy = true;
+         }
+      }
+      if( integerDigits + fractionDigits == 0 || integerDigits + fractionDigits > precision ) {
+         throw new NumberFormatException( text.toString() );
+      }
+
+      double value;
+      if( copy ) {
+         StringBuilder sb = new StringBuilder( end );
+         for( int i = 0; i < end; i++ ) {
+            char c = text.charAt( i );
+            if( !BulkInsert.isWhitespace( c ) && c != '+' ) {
+               sb.append( c );
+            }
+         }
+         value = symbols.parseDouble( sb );
+      }
+      else {
+         value = symbols.parseDouble( text );
+      }
+
+      double magnitude = Math.abs( value );
+      if( magnitude > maxMagnitude ) {
+         return negative ? -maxMagnitude : maxMagnitude;
+      }
+      if( magnitude != 0 && magnitude < minMagnitude ) {
+         return negative ? -minMagnitude : minMagnitude;
+      }
+      return value;
+   }
+
+   @Override
+   public void insertString( FilterBypass fb, int offset, String text, AttributeSet attrs ) throws BadLocationException {
+      replace( fb, offset, 0, text, attrs );
+   }
+
+   @Override
+   public void replace( FilterBypass fb, int offset, int length, String text, AttributeSet attrs ) throws BadLocationException {
+      if( text == null ) {
+         text = "";
+      }
+      if( bulkInsertEnabled && text.length() > 1 ) {
+         text = BulkInsert.firstCell( text, symbols );
+      }
+      Document doc = fb.getDocument();
+      State state = State.of( doc, symbols );
+      if( !state.clean ) {
+         // Be as lenient as the text already in the document, only the insertion is checked.
+         if( isDecimalText( text, offset == 0 )) {
+            fb.replace( offset, length, text, attrs );
+         }
+         return;
+      }
+
+      Edit edit = state.edit;
+      if( !edit.apply( state, offset, length, text ) || (edit.negative && !allowsNegative) ) {
+         return;
+      }
+
+      if( bulkInsertEnabled && edit.fractionDigits > scale && edit.fractionDigits > state.fractionDigits ) {
+         text = truncateFraction( state, edit, offset, length, text );
+         if( text == null || !edit.apply( state, offset, length, text )) {
+            return;
+         }
+      }
+
+      int digits = edit.integerDigits + edit.fractionDigits;
+      if( (digits > precision && digits > state.integerDigits + state.fractionDigits)
+            || (edit.fractionDigits > scale && edit.fractionDigits > state.fractionDigits) ) {
+         return;
+      }
+
+      if( nearBounds( edit )) {
+         String clamped = clamp( doc, offset, length, text );
+         if( clamped != null ) {
+            fb.replace( 0, doc.getLength(), clamped, attrs );
+            return;
+         }
+      }
+      commit( fb, state, offset, length, text, attrs );
+   }
+
+   @Override
+   public void remove( FilterBypass fb, int offset, int length ) throws BadLocationException {
+      Document doc = fb.getDocument();
+      State state = State.of( doc, symbols );
+      if( !state.clean || !state.edit.apply( state, offset, length, "" )) {
+         fb.remove( offset, length );
+         return;
+      }
+
+      // Removing the sign or decimal point can push the value out of range
+      if( nearBounds( state.edit )) {
+         String clamped = clamp( doc, offset, length, "" );
+         if( clamped != null ) {
+            fb.replace( 0, doc.getLength(), clamped, null );
+            return;
+         }
+      }
+      commit( fb, state, offset, length, "", null );
+   }
+
+   /**
+    * Commits an edit whose resulting shape is already known, so the state does not rescan the inserted text.
+    */
+   private void commit( FilterBypass fb, State state, int offset, int length, String text, AttributeSet attrs ) throws BadLocationException {
+      state.expect( state.edit, (length > 0 ? 1 : 0) + (text.length() > 0 ? 1 : 0) );
+      try {
+         if( length == 0 ) {
+            fb.insertString( offset, text, attrs );
+         }
+         else {
+            fb.replace( offset, length, text, attrs );
+         }
+      }
+      finally {
+         state.settle();
+      }
+   }
+
+   /**
+    * Drops the trailing fraction digits of an insertion at the end of the document which exceed the scale.
+    * 
+    * @return the truncated text, or null if the excess digits are not all in the inserted text
+    */
+   private String truncateFraction( State state, Edit edit, int offset, int length, String text ) {
+      int excess = edit.fractionDigits - Math.max( scale, state.fractionDigits );
+      int keep = text.length() - excess;
+      if( offset + length != state.length || keep < 0 || edit.decimal >= offset + keep ) {
+         return null;
+      }
+      return text.substring( 0, keep );
+   }
+
+   private boolean nearBounds( Edit edit ) {
+      return edit.integerDigits + edit.fractionDigits > 0
+            && (edit.integerDigits >= overflowDigits || edit.fractionDigits >= underflowDigits);
+   }
+
+   /**
+    * Compares the edited text with the bounds. The text is scanned once, keeping only the
+    * significant integer digits and as many fraction digits as the smallest magnitude has,
+    * which is all that is needed to decide either comparison. Only those few digits are parsed.
+    * 
+    * @return the bound to replace the text with, or null if it is in range
+    */
+   private String clamp( Document doc, int offset, int length, String text ) throws BadLocationException {
+      if( max == null && min == null ) {
+         return null;
+      }
+      integerCount = 0;
+      fractionCount = 0;
+      fractionNonZero = false;
+      inFraction = false;
+      negative = false;
+
+      scan( doc, 0, offset );
+      for( int i = 0; i < text.length(); i++ ) {
+         measure( text.charAt( i ));
+      }
+      scan( doc, offset + length, doc.getLength() );
+
+      if( max != null && integerCount > integerBuffer.length ) {
+         return negative ? negativeMaxText : maxText;
+      }
+      if( max != null && integerCount == integerBuffer.length ) {
+         int cmp = new BigDecimal( integerBuffer, 0, integerCount ).compareTo( max );
+         if( cmp > 0 || (cmp == 0 && fractionNonZero) ) {
+            return negative ? negativeMaxText : maxText;
+         }
+      }
+      if( min != null && integerCount == 0 && fractionNonZero ) {
+         // Truncating to the scale of min does not change the outcome of comparing with min.
+         BigDecimal fraction = new BigDecimal( fractionBuffer, 0, fractionCount ).movePointLeft( fractionCount );
+         if( fraction.compareTo( min ) < 0 ) {
+            return negative ? negativeMinText : minText;
+         }
+      }
+      return null;
+   }
+
+   private void scan( Document doc, int from, int to ) throws BadLocationException {
+      while( from < to ) {
+         doc.getText( from, to - from, segment );
+         int end = segment.offset + segment.count;
+         for( int i = segment.offset; i < end; i++ ) {
+            measure( segment.array[i] );
+         }
+         from += segment.count;
+      }
+   }
+
+   private void measure( char c ) {
+      if( symbols.isMinus( c )) {
+         negative = true;
+      }
+      else if( symbols.isDecimalSeparator( c )) {
+         inFraction = true;
+      }
+      else if( !inFraction ) {
+         if( integerCount > 0 || c != '0' ) {
+            if( integerCount < integerBuffer.length ) {
+               integerBuffer[integerCount++] = c;
+            }
+            else {
+               integerCount = integerBuffer.length + 1;
+            }
+         }
+      }
+      else {
+         fractionNonZero |= c != '0';
+         if( fractionCount < fractionBuffer.length ) {
+            fractionBuffer[fractionCount++] = c;
+         }
+      }
+   }
+
+   private boolean isDecimalText( String text, boolean signAllowed ) {
+      for( int i = 0; i < text.length(); i++ ) {
+         char c = text.charAt( i );
+         if( (c < '0' || c > '9') && !symbols.isDecimalSeparator( c ) && !(signAllowed && i == 0 && symbols.isMinus( c )) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+
+   /**
+    * The shape of a document, attached as a document property and kept current by listening to it.
+    * While <code>clean</code> the document holds an optional leading minus sign, digits and at most
+    * one decimal separator. A state is replaced when a filter with different symbols edits the document,
+    * and removed by {@link DecimalDocumentFilter#detach(Document)}.
+    */
+   static final class State implements DocumentListener {
+      private static final Object KEY = State.class;
+
+      private final Document doc;
+      final NumericSymbols symbols;
+      private final Segment segment = new Segment();
+      final Edit edit = new Edit();
+      private final Edit expected = new Edit();
+      private int expectedEvents;
+
+      boolean clean;
+      int length;
+      boolean negative;
+      int decimal;
+      int integerDigits;
+      int fractionDigits;
+
+      private State( Document doc, NumericSymbols symbols ) {
+         this.doc = doc;
+         this.symbols = symbols;
+         this.segment.setPartialReturn( true );
+         rescan();
+      }
+
+      static State of( Document doc, NumericSymbols symbols ) throws BadLocationException {
+         Object property = doc.getProperty( KEY );
+         State state;
+         if( property instanceof State && ((State)property).symbols.equals( symbols )) {
+            state = (State)property;
+         }
+         else {
+            if( property instanceof State ) {
+               doc.removeDocumentListener( (State)property );
+            }
+            state = new State( doc, symbols );
+            doc.putProperty( KEY, state );
+            doc.addDocumentListener( state );
+         }
+         if( !state.clean || state.length != doc.getLength() ) {
+            state.rescan();
+         }
+         return state;
+      }
+
+      static void detach( Document doc ) {
+         Object property = doc.getProperty( KEY );
+         if( property instanceof State ) {
+            doc.removeDocumentListener( (State)property );
+            doc.putProperty( KEY, null );
+         }
+      }
+
+      private void rescan() {
+         expectedEvents = 0;
+         clean = true;
+         length = doc.getLength();
+         negative = false;
+         decimal = -1;
+         integerDigits = 0;
+         fractionDigits = 0;
+         try {
+            int from = 0;
+            while( from < length ) {
+               doc.getText( from, length - from, segment );
+               for( int i = 0; i < segment.count; i++ ) {
+                  char c = segment.array[segment.offset + i];
+                  int index = from + i;
+                  if( c >= '0' && c <= '9' ) {
+                     if( decimal < 0 ) {
+                        integerDigits++;
+                     }
+                     else {
+                        fractionDigits++;
+                     }
+                  }
+                  else if( index == 0 && symbols.isMinus( c )) {
+                     negative = true;
+                  }
+                  else if( decimal < 0 && symbols.isDecimalSeparator( c )) {
+                     decimal = index;
+                  }
+                  else {
+                     clean = false;
+                  }
+               }
+               from += segment.count;
+            }
+         }
+         catch( BadLocationException e ) {
+            clean = false;
+         }
+      }
+
+      /**
+       * @return the number of digits before the decimal point within [from, to)
+       */
+      int integerDigitsIn( int from, int to ) {
+         int end = decimal < 0 ? length : decimal;
+         return Math.max( 0, Math.min( to, end ) - Math.max( from, negative ? 1 : 0 ));
+      }
+
+      /**
+       * @return the number of digits after the decimal point within [from, to)
+       */
+      int fractionDigitsIn( int from, int to ) {
+         if( decimal < 0 ) {
+            return 0;
+         }
+         return Math.max( 0, Math.min( to, length ) - Math.max( from, decimal + 1 ));
+      }
+
+      /**
+       * Announces an edit whose resulting shape is already known. The state jumps
+       * straight to it once the given number of document events have been fired.
+       */
+      void expect( Edit result, int events ) {
+         expected.copy( result );
+         expectedEvents = events;
+      }
+
+      /**
+       * Called once an expected edit was made, marks the state stale if it did not fire as announced.
+       */
+      void settle() {
+         if( expectedEvents != 0 ) {
+            expectedEvents = 0;
+            clean = false;
+         }
+      }
+
+      private boolean expected() {
+         if( expectedEvents == 0 ) {
+            return false;
+         }
+         if( --expectedEvents == 0 ) {
+            commit( expected );
+         }
+         return true;
+      }
+
+      @Override
+      public void insertUpdate( DocumentEvent e ) {
+         if( expected() ) {
+            return;
+         }
+         if( clean && edit.apply( this, e.getOffset(), 0, e ) ) {
+            commit( edit );
+         }
+         else {
+            clean = false;
+            length = doc.getLength();
+         }
+      }
+
+      @Override
+      public void removeUpdate( DocumentEvent e ) {
+         if( expected() ) {
+            return;
+         }
+         if( clean && edit.apply( this, e.getOffset(), e.getLength(), "" ) ) {
+            commit( edit );
+         }
+         else {
+            clean = false;
+            length = doc.getLength();
+         }
+      }
+
+      @Override
+      public void changedUpdate( DocumentEvent e ) { /* noop */ }
+
+      private void commit( Edit result ) {
+         length = result.length;
+         negative = result.negative;
+         decimal = result.decimal;
+         integerDigits = result.integerDigits;
+         fractionDigits = result.fractionDigits;
+      }
+
+      private boolean scanInserted( int offset, int count ) {
+         try {
+            int from = offset;
+            int to = offset + count;
+            while( from < to ) {
+               doc.getText( from, to - from, segment );
+               for( int i = 0; i < segment.count; i++ ) {
+                  if( !edit.accept( segment.array[segment.offset + i] )) {
+                     return false;
+                  }
+               }
+               from += segment.count;
+            }
+            return true;
+         }
+         catch( BadLocationException e ) {
+            return false;
+         }
+      }
+   }
+
+
+   /**
+    * The shape a clean document would have after replacing a range, computed from the
+    * state and the inserted characters only. Reused, edits only run under the document lock.
+    */
+   static final class Edit {
+      int length;
+      boolean negative;
+      int decimal;
+      int integerDigits;
+      int fractionDigits;
+
+      // Scan state for the inserted characters
+      private NumericSymbols symbols;
+      private int offset;
+      private int index;
+      private boolean signAllowed;
+      private boolean decimalAllowed;
+      private int insertedDecimal;
+      private int digitsBefore;
+      private int digitsAfter;
+
+      void copy( Edit other ) {
+         length = other.length;
+         negative = other.negative;
+         decimal = other.decimal;
+         integerDigits = other.integerDigits;
+         fractionDigits = other.fractionDigits;
+      }
+
+      boolean apply( State state, int offset, int length, String text ) {
+         if( !begin( state, offset, length )) {
+            return false;
+         }
+         for( int i = 0; i < text.length(); i++ ) {
+            if( !accept( text.charAt( i ))) {
+               return false;
+            }
+         }
+         return finish( state, offset, length, text.length() );
+      }
+
+      /**
+       * Applies an insertion which is already in the document, from a DocumentEvent
+       */
+      boolean apply( State state, int offset, int length, DocumentEvent e ) {
+         return begin( state, offset, length )
+               && state.scanInserted( offset, e.getLength() )
+               && finish( state, offset, length, e.getLength() );
+      }
+
+      private boolean begin( State state, int offset, int length ) {
+         int end = offset + length;
+         boolean signKept = state.negative && (offset > 0 || length == 0);
+         boolean decimalKept = state.decimal >= 0 && (state.decimal < offset || state.decimal >= end);
+
+         // Nothing may be inserted in front of a sign which is kept
+         if( signKept && offset == 0 ) {
+            this.signAllowed = false;
+            this.offset = -1;
+         }
+         else {
+            this.signAllowed = offset == 0;
+            this.offset = offset;
+         }
+         this.symbols = state.symbols;
+         this.negative = signKept;
+         this.decimalAllowed = !decimalKept;
+         this.index = 0;
+         this.insertedDecimal = -1;
+         this.digitsBefore = 0;
+         this.digitsAfter = 0;
+         return true;
+      }
+
+      boolean accept( char c ) {
+         if( offset < 0 ) {
+            // Inserting in front of the sign
+            return false;
+         }
+         int i = index++;
+         if( c >= '0' && c <= '9' ) {
+            if( insertedDecimal < 0 ) {
+               digitsBefore++;
+            }
+            else {
+               digitsAfter++;
+            }
+            return true;
+         }
+         if( i == 0 && signAllowed && symbols.isMinus( c )) {
+            negative = true;
+            return true;
+         }
+         if( decimalAllowed && insertedDecimal < 0 && symbols.isDecimalSeparator( c )) {
+            insertedDecimal = i;
+            return true;
+         }
+         return false;
+      }
+
+      private boolean finish( State state, int offset, int length, int inserted ) {
+         int end = offset + length;
+         boolean decimalKept = state.decimal >= 0 && (state.decimal < offset || state.decimal >= end);
+
+         int prefixInteger = state.integerDigitsIn( 0, offset );
+         int prefixFraction = state.fractionDigitsIn( 0, offset );
+         int suffixInteger = state.integerDigitsIn( end, state.length );
+         int suffixFraction = state.fractionDigitsIn( end, state.length );
+
+         this.length = state.length - length + inserted;
+         if( decimalKept ) {
+            if( state.decimal < offset ) {
+               decimal = state.decimal;
+               integerDigits = prefixInteger;
+               fractionDigits = prefixFraction + digitsBefore + suffixFraction;
+            }
+            else {
+               decimal = state.decimal - length + inserted;
+               integerDigits = prefixInteger + digitsBefore + suffixInteger;
+               fractionDigits = suffixFraction;
+            }
+         }
+         else if( insertedDecimal >= 0 ) {
+            decimal = offset + insertedDecimal;
+            integerDigits = prefixInteger + prefixFraction + digitsBefore;
+            fractionDigits = digitsAfter + suffixInteger + suffixFraction;
+         }
+         else {
+            decimal = -1;
+            integerDigits = prefixInteger + prefixFraction + digitsBefore + suffixInteger + suffixFraction;
+            fractionDigits = 0;
+         }
+         return true;
+      }
+   }
+}
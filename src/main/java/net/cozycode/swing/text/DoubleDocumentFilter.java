@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.math.BigDecimal;
+
+/**
+ * Restricts a document to an optionally negative double.
+ * Edits which would leave the document beyond +/-Double.MAX_VALUE replace the text
+ * with the bound, and edits which would leave it closer to zero than Double.MIN_VALUE
+ * replace it with Double.MIN_VALUE.
+ */
+public class DoubleDocumentFilter extends DecimalDocumentFilter {
+   private static final BigDecimal MAX = new BigDecimal( Double.MAX_VALUE );
+   private static final BigDecimal MIN = new BigDecimal( Double.toString( Double.MIN_VALUE ));
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    */
+   public DoubleDocumentFilter( boolean allowsNegative ) {
+      this( allowsNegative, UNLIMITED, UNLIMITED );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public DoubleDocumentFilter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator and minus sign to accept
+    */
+   public DoubleDocumentFilter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( allowsNegative, precision, scale, symbols, MAX, MIN );
+   }
+}
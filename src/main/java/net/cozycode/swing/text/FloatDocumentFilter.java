@@ -16,94 +16,41 @@
 
 package net.cozycode.swing.text;
 
-import java.util.regex.Pattern;
+import java.math.BigDecimal;
 
-import javax.swing.text.AttributeSet;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Document;
-import javax.swing.text.DocumentFilter;
-
-public class FloatDocumentFilter extends DocumentFilter {
-   private static final Pattern POS_PATTERN = Pattern.compile( "[0-9]*\\.?[0-9]*" );
-   private static final Pattern NEG_PATTERN = Pattern.compile( "-?[0-9]*\\.?[0-9]*" );
-
-   private final boolean allowsNegative;
+/**
+ * Restricts a document to an optionally negative float.
+ * Edits which would leave the document beyond +/-Float.MAX_VALUE replace the text
+ * with the bound, and edits which would leave it closer to zero than Float.MIN_VALUE
+ * replace it with Float.MIN_VALUE.
+ */
+public class FloatDocumentFilter extends DecimalDocumentFilter {
+   private static final BigDecimal MAX = new BigDecimal( Float.MAX_VALUE );
+   private static final BigDecimal MIN = new BigDecimal( Float.toString( Float.MIN_VALUE ));
 
    /**
-    * @param precision - Maximum number of decimal places
     * @param allowsNegative - Whether negative values are acceptable
     */
    public FloatDocumentFilter( boolean allowsNegative ) {
-      this.allowsNegative = allowsNegative;
-   }
-
-   protected Pattern getPattern() {
-      return allowsNegative ? NEG_PATTERN : POS_PATTERN;
-   }
-
-   protected boolean matches( String text ) {
-      return getPattern().matcher( text ).matches();
-   }
-
-   protected boolean misplacedNegative( String text, int offset ) {
-      return text.length() > 0 && text.charAt(0) == '-' && offset != 0;
-   }
-
-   protected boolean multipleDecimals( FilterBypass fb, int offset, int length, String text ) throws BadLocationException {
-      Document doc = fb.getDocument();
-      String s = doc.getText(0, doc.getLength() );
-
-      boolean prefixHasDecimal = s.substring(0, offset).indexOf( '.') != -1 ;
-      boolean suffixHasDecimal = s.substring( offset + length ).indexOf( '.' ) != -1;
-
-      boolean insertingDecimal = text.indexOf( '.' ) != -1;
-
-      return (prefixHasDecimal || suffixHasDecimal) && insertingDecimal;
-   }
-
-   @Override
-   public void insertString( FilterBypass fb, int offset, String text, AttributeSet attrs ) throws BadLocationException {
-      if( matches( text ) && !misplacedNegative( text, offset ) && !multipleDecimals( fb, offset, 0, text )) {
-         super.insertString( fb, offset, text, attrs );
-         checkUnderOverflow( fb, attrs );
-      }
+      this( allowsNegative, UNLIMITED, UNLIMITED );
    }
 
-   @Override
-   public void replace( FilterBypass fb, int offset, int length, String text, AttributeSet attrs ) throws BadLocationException {
-      if( matches( text ) && !misplacedNegative( text, offset ) && !multipleDecimals( fb, offset, length, text )) {
-         super.replace(fb, offset, length, text, attrs);
-         checkUnderOverflow( fb, attrs );
-      }
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    */
+   public FloatDocumentFilter( boolean allowsNegative, int precision, int scale ) {
+      this( allowsNegative, precision, scale, NumericSymbols.PLAIN );
    }
 
-   private final void checkUnderOverflow( FilterBypass fb, AttributeSet attr ) throws BadLocationException {
-      Document doc = fb.getDocument();
-      String s = doc.getText(0, doc.getLength() );
-
-      if( "".equals(s) || "-".equals(s) || ".".equals(s) || "-.".equals(s) ) {
-         return;
-      }
-
-      double value = Double.valueOf( s );
-
-      if( value > 0 ) {
-         if( value > Float.MAX_VALUE ) {
-            fb.replace(0, doc.getLength(), Float.toString( Float.MAX_VALUE ), attr );
-         }
-         if( value < Float.MIN_VALUE ) {
-            fb.replace(0, doc.getLength(), Float.toString( Float.MIN_VALUE ), attr );
-         }
-      }
-      else if( value < 0 ) {
-         if( value < -Float.MAX_VALUE ) {
-            fb.replace(0, doc.getLength(), Float.toString( -Float.MAX_VALUE ), attr );
-         }
-         if( value > -Float.MIN_VALUE ) {
-            fb.replace(0, doc.getLength(), Float.toString( -Float.MIN_VALUE ), attr );
-         }
-      }
-
-      Float.valueOf( s );
+   /**
+    * @param allowsNegative - Whether negative values are acceptable
+    * @param precision - Maximum number of digits
+    * @param scale - Maximum number of decimal places
+    * @param symbols - The decimal separator and minus sign to accept
+    */
+   public FloatDocumentFilter( boolean allowsNegative, int precision, int scale, NumericSymbols symbols ) {
+      super( allowsNegative, precision, scale, symbols, MAX, MIN );
    }
 }
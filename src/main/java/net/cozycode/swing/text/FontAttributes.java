@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An immutable snapshot of a font's attributes.
+ * <p>
+ * Font.getAttributes() builds a new map on every call. Snapshots are taken once
+ * per font and held in a weak keyed cache, so reading an attribute is a plain
+ * map lookup and does not allocate.
+ */
+final class FontAttributes {
+   private static final Map<Font, FontAttributes> CACHE =
+         Collections.synchronizedMap( new WeakHashMap<Font, FontAttributes>() );
+
+   private final Map<Attribute, Object> attributes;
+
+   private FontAttributes( Font font ) {
+      this.attributes = Collections.unmodifiableMap( new HashMap<Attribute, Object>( font.getAttributes() ));
+   }
+
+   /**
+    * @return the attribute snapshot for the font, computing it on first use
+    */
+   static FontAttributes of( Font font ) {
+      FontAttributes snapshot = CACHE.get( font );
+      if( snapshot == null ) {
+         // Racing threads compute equal snapshots, so last one in wins harmlessly.
+         snapshot = new FontAttributes( font );
+         CACHE.put( font, snapshot );
+      }
+      return snapshot;
+   }
+
+   boolean containsKey( Attribute attribute ) {
+      return attributes.containsKey( attribute );
+   }
+
+   Object get( Attribute attribute ) {
+      return attributes.get( attribute );
+   }
+
+   /**
+    * @return an unmodifiable view of the snapshot
+    */
+   Map<Attribute, Object> asMap() {
+      return attributes;
+   }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.awt.font.TextAttribute;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * A cached catalog of the fonts available to the local graphics environment.
+ * <p>
+ * Enumerating the system fonts can take hundreds of milliseconds the first time,
+ * so the catalog is meant to be warmed up on a background thread at startup:
+ * <pre>
+ *    FontCatalog.getInstance().warmUp();
+ * </pre>
+ * Blocking accessors wait for the warm up to finish, or load the catalog on the
+ * calling thread if it was never started. Code running on the EDT should prefer
+ * {@link #isLoaded()} and {@link #whenLoaded(Runnable)}.
+ */
+public final class FontCatalog {
+   private static final FontCatalog INSTANCE = new FontCatalog();
+
+   /** Face name fragments mapped to weights, checked in order so "semibold" wins over "bold". */
+   private static final String[] WEIGHT_NAMES = {
+      "extralight", "ultralight", "thin", "semilight", "demilight", "light",
+      "semibold", "demibold", "extrabold", "ultrabold", "bold",
+      "medium", "black", "heavy",
+   };
+   private static final Float[] WEIGHT_VALUES = {
+      TextAttribute.WEIGHT_EXTRA_LIGHT, TextAttribute.WEIGHT_EXTRA_LIGHT, TextAttribute.WEIGHT_EXTRA_LIGHT,
+      TextAttribute.WEIGHT_DEMILIGHT, TextAttribute.WEIGHT_DEMILIGHT, TextAttribute.WEIGHT_LIGHT,
+      TextAttribute.WEIGHT_SEMIBOLD, TextAttribute.WEIGHT_DEMIBOLD, TextAttribute.WEIGHT_EXTRABOLD,
+      TextAttribute.WEIGHT_ULTRABOLD, TextAttribute.WEIGHT_BOLD,
+      TextAttribute.WEIGHT_MEDIUM, TextAttribute.WEIGHT_HEAVY, TextAttribute.WEIGHT_HEAVY,
+   };
+
+   private final List<Runnable> callbacks = new ArrayList<Runnable>();
+   private volatile FutureTask<Catalog> task;
+   private boolean started;
+
+   private FontCatalog() {
+      this.task = newTask();
+   }
+
+   public static FontCatalog getInstance() {
+      return INSTANCE;
+   }
+
+
+   //////  LOADING  /////////////////////////////////////////////////
+
+   /**
+    * Starts loading the catalog on a daemon thread, if it is not loaded or loading already.
+    * 
+    * @return a future which completes when the catalog is loaded
+    */
+   public Future<?> warmUp() {
+      FutureTask<Catalog> current;
+      synchronized( this ) {
+         current = task;
+         if( started ) {
+            return current;
+         }
+         started = true;
+      }
+      Thread loader = new Thread( current, "FontCatalog loader" );
+      loader.setDaemon( true );
+      loader.setPriority( Thread.MIN_PRIORITY );
+      loader.start();
+      return current;
+   }
+
+   /**
+    * @return true if the catalog can be read without blocking
+    */
+   public boolean isLoaded() {
+      return task.isDone();
+   }
+
+   /**
+    * Runs the callback on the EDT once the catalog is loaded, warming it up if required.
+    * If the catalog is already loaded the callback is still run later on the EDT.
+    */
+   public void whenLoaded( Runnable callback ) {
+      synchronized( callbacks ) {
+         if( !isLoaded() ) {
+            callbacks.add( callback );
+            callback = null;
+         }
+      }
+      if( callback != null ) {
+         SwingUtilities.invokeLater( callback );
+      }
+      else {
+         warmUp();
+      }
+   }
+
+   /**
+    * Discards the catalog so fonts registered since it was loaded are picked up.
+    * The catalog is reloaded lazily, or call {@link #warmUp()} to reload it in the background.
+    */
+   public void reload() {
+      synchronized( this ) {
+         task = newTask();
+         started = false;
+      }
+   }
+
+   private FutureTask<Catalog> newTask() {
+      return new FutureTask<Catalog>( new Callable<Catalog>() {
+         @Override
+         public Catalog call() {
+            return new Catalog( GraphicsEnvironment.getLocalGraphicsEnvironment() );
+         }
+      }) {
+         @Override
+         protected void done() {
+            List<Runnable> pending;
+            synchronized( callbacks ) {
+               pending = new ArrayList<Runnable>( callbacks );
+               callbacks.clear();
+            }
+            for( Runnable callback : pending ) {
+               SwingUtilities.invokeLater( callback );
+            }
+         }
+      };
+   }
+
+   private Catalog catalog() {
+      FutureTask<Catalog> current = task;
+      synchronized( this ) {
+         if( current == task ) {
+            started = true;
+         }
+      }
+
+      // Loads on this thread if no one else has started, otherwise this is a no-op.
+      current.run();
+
+      boolean interrupted = false;
+      try {
+         while( true ) {
+            try {
+               return current.get();
+            }
+            catch( InterruptedException e ) {
+               interrupted = true;
+            }
+            catch( ExecutionException e ) {
+               Throwable cause = e.getCause();
+               if( cause instanceof RuntimeException ) {
+                  throw (RuntimeException)cause;
+               }
+               if( cause instanceof Error ) {
+                  throw (Error)cause;
+               }
+               throw new IllegalStateException( "Unable to load the font catalog", cause );
+            }
+         }
+      }
+      finally {
+         if( interrupted ) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+
+   //////  LOOKUPS  /////////////////////////////////////////////////
+
+   /**
+    * @return all available fonts, blocks until the catalog is loaded
+    */
+   public Font[] getFonts() {
+      return catalog().fonts.clone();
+   }
+
+   /**
+    * @return the names of all available font families, blocks until the catalog is loaded
+    */
+   public String[] getFamilyNames() {
+      return catalog().familyNames.clone();
+   }
+
+   /**
+    * @return the fonts belonging to the family, ignoring case, or an empty list
+    */
+   public List<Font> getFamily( String family ) {
+      List<Font> fonts = catalog().families.get( fold( family ));
+      return fonts == null ? Collections.<Font>emptyList() : fonts;
+   }
+
+   /**
+    * Finds the font in a family which is closest to the requested weight and posture.
+    * Fonts with a matching posture are preferred over closer weights.
+    * 
+    * @param family - The family name, ignoring case
+    * @param weight - One of the TextAttribute.WEIGHT_XXX values
+    * @param posture - One of the TextAttribute.POSTURE_XXX values
+    * @return the best match, or null if the family is not available
+    */
+   public Font findFont( String family, float weight, float posture ) {
+      Font best = null;
+      float bestScore = Float.MAX_VALUE;
+      for( Font font : getFamily( family )) {
+         float score = Math.abs( weightOf( font ) - weight ) + (postureOf( font ) == posture ? 0f : 100f);
+         if( score < bestScore ) {
+            best = font;
+            bestScore = score;
+         }
+      }
+      return best;
+   }
+
+   /**
+    * Estimates the weight of a catalog font. The fonts returned by the graphics environment
+    * are all plain, so the weight is read from the face name when it is not set explicitly.
+    */
+   public static float weightOf( Font font ) {
+      Number weight = FontUtilities.getWeight( font );
+      if( font.isBold() || (weight != null && weight.floatValue() != TextAttribute.WEIGHT_REGULAR.floatValue()) ) {
+         return weight == null ? TextAttribute.WEIGHT_BOLD.floatValue() : weight.floatValue();
+      }
+      String name = foldName( font );
+      for( int i = 0; i < WEIGHT_NAMES.length; i++ ) {
+         if( name.indexOf( WEIGHT_NAMES[i] ) != -1 ) {
+            return WEIGHT_VALUES[i].floatValue();
+         }
+      }
+      return TextAttribute.WEIGHT_REGULAR.floatValue();
+   }
+
+   /**
+    * Estimates the posture of a catalog font, see {@link #weightOf(Font)}.
+    */
+   public static float postureOf( Font font ) {
+      if( font.isItalic() ) {
+         return TextAttribute.POSTURE_OBLIQUE.floatValue();
+      }
+      String name = foldName( font );
+      return name.indexOf( "italic" ) != -1 || name.indexOf( "oblique" ) != -1
+            ? TextAttribute.POSTURE_OBLIQUE.floatValue()
+            : TextAttribute.POSTURE_REGULAR.floatValue();
+   }
+
+   private static String foldName( Font font ) {
+      return font.getFontName( Locale.ENGLISH ).toLowerCase( Locale.ENGLISH ).replace( " ", "" ).replace( "-", "" );
+   }
+
+   static String fold( String name ) {
+      return name.toLowerCase( Locale.ENGLISH );
+   }
+
+
+   private static final class Catalog {
+      private final Font[] fonts;
+      private final String[] familyNames;
+      private final Map<String, List<Font>> families;
+
+      Catalog( GraphicsEnvironment env ) {
+         this.fonts = env.getAllFonts();
+         this.familyNames = env.getAvailableFontFamilyNames();
+
+         Map<String, List<Font>> index = new HashMap<String, List<Font>>();
+         for( Font font : fonts ) {
+            String key = fold( font.getFamily() );
+            List<Font> family = index.get( key );
+            if( family == null ) {
+               family = new ArrayList<Font>();
+               index.put( key, family );
+            }
+            family.add( font );
+         }
+         for( Map.Entry<String, List<Font>> entry : index.entrySet() ) {
+            entry.setValue( Collections.unmodifiableList( entry.getValue() ));
+         }
+         this.families = index;
+      }
+   }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread safe cache of derived fonts.
+ * <p>
+ * Deriving the same (font, attribute, value) combination, or resolving equal
+ * {@link FontKey}s against the same font, twice returns the same Font instance. Lookups reuse a single probe key so a cache hit does
+ * not allocate. When the cache grows beyond its maximum size the least
+ * recently used derivation is evicted.
+ */
+public final class FontDerivationCache {
+   public static final int DEFAULT_MAX_SIZE = 512;
+
+   private final int maxSize;
+   private final Map<Key, Font> cache;
+   private final Key probe = new Key();
+
+   /** Stands in for the value of a FontKey derivation, the key carries all of the attributes. */
+   private static final Object SPEC = new Object();
+
+   private long hits;
+   private long misses;
+   private long evictions;
+
+   public FontDerivationCache() {
+      this( DEFAULT_MAX_SIZE );
+   }
+
+   public FontDerivationCache( int maxSize ) {
+      if( maxSize <= 0 ) {
+         throw new IllegalArgumentException( "maxSize must be positive: " + maxSize );
+      }
+      this.maxSize = maxSize;
+      this.cache = new LinkedHashMap<Key, Font>( 16, 0.75f, true ) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry( Map.Entry<Key, Font> eldest ) {
+            if( size() > FontDerivationCache.this.maxSize ) {
+               evictions++;
+               return true;
+            }
+            return false;
+         }
+      };
+   }
+
+   /**
+    * Returns the font derived from <code>font</code> with <code>key</code> set to
+    * <code>value</code>, creating and caching it if it has not been derived before.
+    */
+   public Font derive( Font font, Attribute key, Object value ) {
+      synchronized( cache ) {
+         Font derived = lookup( font, key, value );
+         if( derived != null ) {
+            hits++;
+            return derived;
+         }
+         misses++;
+      }
+
+      // Build the font outside of the lock, Font construction is not cheap.
+      Map<Attribute, Object> attribs = new HashMap<Attribute, Object>( FontAttributes.of( font ).asMap() );
+      attribs.put( key, value );
+      return intern( font, key, value, new Font( attribs ));
+   }
+
+   /**
+    * Returns the font produced by applying <code>spec</code> to <code>font</code>,
+    * creating and caching it if it has not been resolved before.
+    * 
+    * @param font - The font to derive from, may be null
+    * @param spec - The derivations to apply
+    */
+   public Font derive( Font font, FontSpec spec ) {
+      return derive( font, spec.toKey() );
+   }
+
+   /**
+    * Returns the font produced by applying <code>key</code> to <code>font</code>,
+    * creating and caching it if it has not been resolved before.
+    * 
+    * @param font - The font to derive from, may be null
+    * @param key - The derivations to apply
+    */
+   public Font derive( Font font, FontKey key ) {
+      synchronized( cache ) {
+         Font derived = lookup( font, key, SPEC );
+         if( derived != null ) {
+            hits++;
+            return derived;
+         }
+         misses++;
+      }
+
+      Map<Attribute, Object> attribs = font == null
+            ? new HashMap<Attribute, Object>()
+            : new HashMap<Attribute, Object>( FontAttributes.of( font ).asMap() );
+      key.applyTo( attribs );
+      return intern( font, key, SPEC, new Font( attribs ));
+   }
+
+   private Font intern( Font font, Object derivation, Object value, Font derived ) {
+      synchronized( cache ) {
+         // Another thread may have won the race, keep the first instance interned.
+         Font existing = lookup( font, derivation, value );
+         if( existing != null ) {
+            return existing;
+         }
+         cache.put( new Key( font, derivation, value ), derived );
+      }
+      return derived;
+   }
+
+   private Font lookup( Font font, Object derivation, Object value ) {
+      Font derived = cache.get( probe.set( font, derivation, value ));
+      probe.set( null, null, null );
+      return derived;
+   }
+
+   public void clear() {
+      synchronized( cache ) {
+         cache.clear();
+      }
+   }
+
+   public int size() {
+      synchronized( cache ) {
+         return cache.size();
+      }
+   }
+
+   public int getMaxSize() {
+      return maxSize;
+   }
+
+   public long getHitCount() {
+      synchronized( cache ) {
+         return hits;
+      }
+   }
+
+   public long getMissCount() {
+      synchronized( cache ) {
+         return misses;
+      }
+   }
+
+   public long getEvictionCount() {
+      synchronized( cache ) {
+         return evictions;
+      }
+   }
+
+   /**
+    * Resets the hit, miss and eviction counters without clearing the cache.
+    */
+   public void resetStatistics() {
+      synchronized( cache ) {
+         hits = 0;
+         misses = 0;
+         evictions = 0;
+      }
+   }
+
+   @Override
+   public String toString() {
+      synchronized( cache ) {
+         return "FontDerivationCache[size=" + cache.size() + ", maxSize=" + maxSize
+               + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+      }
+   }
+
+
+   /**
+    * The derivation is either an Attribute paired with its value or a FontKey paired with SPEC.
+    */
+   private static final class Key {
+      private Font font;
+      private Object derivation;
+      private Object value;
+      private int hash;
+
+      Key() { /* probe */ }
+
+      Key( Font font, Object derivation, Object value ) {
+         set( font, derivation, value );
+      }
+
+      Key set( Font font, Object derivation, Object value ) {
+         this.font = font;
+         this.derivation = derivation;
+         this.value = value;
+         this.hash = ((font == null ? 0 : font.hashCode()) * 31
+               + (derivation == null ? 0 : derivation.hashCode())) * 31
+               + (value == null ? 0 : value.hashCode());
+         return this;
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      @Override
+      public boolean equals( Object obj ) {
+         if( this == obj ) {
+            return true;
+         }
+         if( !(obj instanceof Key) ) {
+            return false;
+         }
+         Key other = (Key)obj;
+         return hash == other.hash
+               && derivation.equals( other.derivation )
+               && (value == null ? other.value == null : value.equals( other.value ))
+               && (font == null ? other.font == null : font.equals( other.font ));
+      }
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable set of font derivations, built with a {@link FontSpec}.
+ * <p>
+ * Keys are compared by their attribute values and may be shared between threads,
+ * the {@link FontDerivationCache} holds them to intern resolved fonts.
+ * <pre>
+ *    static final FontKey HEADING = new FontSpec().weight( TextAttribute.WEIGHT_BOLD ).size( 14f ).toKey();
+ *    Font font = HEADING.resolve( label.getFont() );
+ * </pre>
+ */
+public final class FontKey {
+   private final Map<Attribute, Object> attributes;
+   private final int hash;
+
+   FontKey( Map<Attribute, Object> attributes ) {
+      this.attributes = Collections.unmodifiableMap( new HashMap<Attribute, Object>( attributes ));
+      this.hash = this.attributes.hashCode();
+   }
+
+   /**
+    * Resolves this key without a base font, unspecified attributes take the Font defaults.
+    */
+   public Font resolve() {
+      return resolve( null );
+   }
+
+   /**
+    * Resolves this key against a base font.
+    * 
+    * @param base - The font to derive from, may be null
+    * @return the interned derived font
+    */
+   public Font resolve( Font base ) {
+      return FontUtilities.deriveFont( base, this );
+   }
+
+   /**
+    * @return an unmodifiable map of the attributes in this key
+    */
+   public Map<Attribute, Object> getAttributes() {
+      return attributes;
+   }
+
+   public boolean isEmpty() {
+      return attributes.isEmpty();
+   }
+
+   void applyTo( Map<Attribute, Object> target ) {
+      target.putAll( attributes );
+   }
+
+   @Override
+   public int hashCode() {
+      return hash;
+   }
+
+   @Override
+   public boolean equals( Object obj ) {
+      if( this == obj ) {
+         return true;
+      }
+      if( !(obj instanceof FontKey) ) {
+         return false;
+      }
+      FontKey other = (FontKey)obj;
+      return hash == other.hash && attributes.equals( other.attributes );
+   }
+
+   @Override
+   public String toString() {
+      return "FontKey" + attributes;
+   }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * An immutable search index over font family names.
+ * <p>
+ * Names are case folded once and kept in a sorted array, so prefix queries are a
+ * binary search and substring queries a scan over the prebuilt keys.
+ * Use {@link #search()} to filter incrementally as the user types.
+ */
+public final class FontNameIndex {
+   private final String[] names;
+   private final String[] keys;
+
+   /**
+    * @param names - The names to index, typically {@link FontUtilities#getAvailableFontNames()}
+    */
+   public FontNameIndex( String[] names ) {
+      final String[] folded = new String[names.length];
+      Integer[] order = new Integer[names.length];
+      for( int i = 0; i < names.length; i++ ) {
+         folded[i] = FontCatalog.fold( names[i] );
+         order[i] = i;
+      }
+      Arrays.sort( order, new Comparator<Integer>() {
+         @Override
+         public int compare( Integer a, Integer b ) {
+            return folded[a].compareTo( folded[b] );
+         }
+      });
+
+      this.names = new String[names.length];
+      this.keys = new String[names.length];
+      for( int i = 0; i < order.length; i++ ) {
+         this.names[i] = names[order[i]];
+         this.keys[i] = folded[order[i]];
+      }
+   }
+
+   /**
+    * Builds an index of the families in the {@link FontCatalog}, blocking until it is loaded.
+    */
+   public static FontNameIndex forAvailableFonts() {
+      return new FontNameIndex( FontCatalog.getInstance().getFamilyNames() );
+   }
+
+   public int size() {
+      return names.length;
+   }
+
+   /**
+    * @return the name at an index, names are sorted ignoring case
+    */
+   public String get( int index ) {
+      return names[index];
+   }
+
+   /**
+    * @return the names starting with the prefix, ignoring case
+    */
+   public List<String> startingWith( String prefix ) {
+      String key = FontCatalog.fold( prefix );
+      int from = lowerBound( key );
+      int to = upperBound( key, from );
+      return Collections.unmodifiableList( Arrays.asList( names ).subList( from, to ));
+   }
+
+   /**
+    * @return the names containing the text, ignoring case, with prefix matches first
+    */
+   public List<String> containing( String text ) {
+      Search search = search();
+      search.update( text );
+      List<String> result = new ArrayList<String>( search.getSize() );
+      for( int i = 0; i < search.getSize(); i++ ) {
+         result.add( search.getElementAt( i ));
+      }
+      return result;
+   }
+
+   /**
+    * @return a new incremental search over this index, initially matching every name
+    */
+   public Search search() {
+      return new Search();
+   }
+
+   private int lowerBound( String key ) {
+      int lo = 0;
+      int hi = keys.length;
+      while( lo < hi ) {
+         int mid = (lo + hi) >>> 1;
+         if( keys[mid].compareTo( key ) < 0 ) {
+            lo = mid + 1;
+         }
+         else {
+            hi = mid;
+         }
+      }
+      return lo;
+   }
+
+   private int upperBound( String key, int from ) {
+      int to = from;
+      while( to < keys.length && keys[to].startsWith( key )) {
+         to++;
+      }
+      return to;
+   }
+
+
+   /**
+    * The live result of a substring query, usable directly as the model of a popup list.
+    * <p>
+    * When the query extends the previous one only the previous matches are rescanned,
+    * so typing one more character costs no more than the current result set.
+    * Prefix matches are listed first, each group sorted ignoring case.
+    * Like other Swing models a Search should only be used from the EDT.
+    */
+   public final class Search extends AbstractListModel<String> {
+      private static final long serialVersionUID = 1L;
+
+      private final int[] matches;
+      private final int[] scratch;
+      private int count;
+      private int prefixCount;
+      private String query = "";
+
+      Search() {
+         matches = new int[keys.length];
+         scratch = new int[keys.length];
+         reset();
+      }
+
+      private void reset() {
+         for( int i = 0; i < keys.length; i++ ) {
+            matches[i] = i;
+         }
+         count = keys.length;
+         prefixCount = keys.length;
+      }
+
+      /**
+       * Updates the matches for a new query.
+       * 
+       * @return the number of matches
+       */
+      public int update( String text ) {
+         String key = FontCatalog.fold( text );
+         if( key.equals( query )) {
+            return count;
+         }
+
+         int oldCount = count;
+         if( !key.startsWith( query )) {
+            reset();
+         }
+         narrow( key );
+         query = key;
+
+         // Size changes go out as interval events, so selections past the end are dropped
+         int kept = Math.min( oldCount, count );
+         if( kept > 0 ) {
+            fireContentsChanged( this, 0, kept - 1 );
+         }
+         if( count < oldCount ) {
+            fireIntervalRemoved( this, count, oldCount - 1 );
+         }
+         else if( count > oldCount ) {
+            fireIntervalAdded( this, oldCount, count - 1 );
+         }
+         return count;
+      }
+
+      private void narrow( String key ) {
+         if( key.length() == 0 ) {
+            return;
+         }
+
+         // Prefix matches of a longer key are a contiguous range of the previous ones.
+         int from = lowerBound( key );
+         int to = upperBound( key, from );
+
+         int substringCount = 0;
+         int newPrefixCount = 0;
+         for( int i = 0; i < count; i++ ) {
+            int index = matches[i];
+            if( index >= from && index < to ) {
+               matches[newPrefixCount++] = index;
+            }
+            else if( keys[index].indexOf( key ) != -1 ) {
+               scratch[substringCount++] = index;
+            }
+         }
+         // Former prefix matches may drop into the substring group, restore its order.
+         Arrays.sort( scratch, 0, substringCount );
+         System.arraycopy( scratch, 0, matches, newPrefixCount, substringCount );
+         prefixCount = newPrefixCount;
+         count = newPrefixCount + substringCount;
+      }
+
+      public String getQuery() {
+         return query;
+      }
+
+      /**
+       * @return the number of matches which start with the query
+       */
+      public int getPrefixMatchCount() {
+         return prefixCount;
+      }
+
+      @Override
+      public int getSize() {
+         return count;
+      }
+
+      @Override
+      public String getElementAt( int index ) {
+         if( index >= count ) {
+            throw new IndexOutOfBoundsException( index + " >= " + count );
+         }
+         return names[matches[index]];
+      }
+   }
+}
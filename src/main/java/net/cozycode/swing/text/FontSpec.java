@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.awt.Paint;
+import java.awt.font.TextAttribute;
+import java.awt.font.TransformAttribute;
+import java.text.AttributedCharacterIterator.Attribute;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a reusable set of font derivations.
+ * <p>
+ * Set the attributes once and resolve the spec against a base font as often as needed.
+ * Resolving goes through the spec's immutable {@link FontKey}, so equal specs resolved
+ * against equal fonts share a single Font instance through the {@link FontDerivationCache}.
+ * <pre>
+ *    FontSpec heading = new FontSpec().weight( TextAttribute.WEIGHT_BOLD ).size( 14f );
+ *    Font font = heading.resolve( label.getFont() );
+ * </pre>
+ * A FontSpec is not thread safe, but its keys and the fonts it resolves to may be shared freely.
+ */
+public final class FontSpec {
+   private final Map<Attribute, Object> attributes;
+   private FontKey key;
+
+   public FontSpec() {
+      this.attributes = new HashMap<Attribute, Object>();
+   }
+
+   public FontSpec( FontSpec spec ) {
+      this.attributes = new HashMap<Attribute, Object>( spec.attributes );
+   }
+
+   public FontSpec( FontKey key ) {
+      this.attributes = new HashMap<Attribute, Object>( key.getAttributes() );
+      this.key = key;
+   }
+
+
+   //////  BUILDER  /////////////////////////////////////////////////
+
+   /**
+    * Sets an arbitrary attribute, see the named setters for the common ones.
+    */
+   public FontSpec set( Attribute key, Object value ) {
+      attributes.put( key, value );
+      this.key = null;
+      return this;
+   }
+
+   public FontSpec family( String name ) {
+      return set( TextAttribute.FAMILY, name );
+   }
+
+   /**
+    * @see FontUtilities#deriveWeight(Font, Float)
+    */
+   public FontSpec weight( Float weight ) {
+      return set( TextAttribute.WEIGHT, weight );
+   }
+
+   /**
+    * @see FontUtilities#deriveWidth(Font, Float)
+    */
+   public FontSpec width( Float width ) {
+      return set( TextAttribute.WIDTH, width );
+   }
+
+   /**
+    * @see FontUtilities#derivePosture(Font, Float)
+    */
+   public FontSpec posture( Float posture ) {
+      return set( TextAttribute.POSTURE, posture );
+   }
+
+   public FontSpec size( Number size ) {
+      return set( TextAttribute.SIZE, size );
+   }
+
+   /**
+    * @see FontUtilities#deriveUnderline(Font, Integer)
+    */
+   public FontSpec underline( Integer style ) {
+      return set( TextAttribute.UNDERLINE, style );
+   }
+
+   public FontSpec strikethrough( Boolean enabled ) {
+      return set( TextAttribute.STRIKETHROUGH, enabled );
+   }
+
+   /**
+    * @see FontUtilities#deriveSuperscript(Font, Integer)
+    */
+   public FontSpec superscript( Integer value ) {
+      return set( TextAttribute.SUPERSCRIPT, value );
+   }
+
+   public FontSpec kerning( Integer flag ) {
+      return set( TextAttribute.KERNING, flag );
+   }
+
+   /**
+    * @see FontUtilities#deriveTracking(Font, Float)
+    */
+   public FontSpec tracking( Float value ) {
+      return set( TextAttribute.TRACKING, value );
+   }
+
+   public FontSpec ligatures( Integer flag ) {
+      return set( TextAttribute.LIGATURES, flag );
+   }
+
+   /**
+    * @see FontUtilities#deriveSwapColors(Font, boolean)
+    */
+   public FontSpec swapColors( boolean isEnabled ) {
+      return set( TextAttribute.SWAP_COLORS, isEnabled ? TextAttribute.SWAP_COLORS_ON : null );
+   }
+
+   public FontSpec foreground( Paint paint ) {
+      return set( TextAttribute.FOREGROUND, paint );
+   }
+
+   public FontSpec background( Paint paint ) {
+      return set( TextAttribute.BACKGROUND, paint );
+   }
+
+   public FontSpec runDirection( Boolean direction ) {
+      return set( TextAttribute.RUN_DIRECTION, direction );
+   }
+
+   public FontSpec transform( TransformAttribute transform ) {
+      return set( TextAttribute.TRANSFORM, transform );
+   }
+
+   public FontSpec bidiEmbedding( Integer level ) {
+      return set( TextAttribute.BIDI_EMBEDDING, level );
+   }
+
+
+   //////  RESOLUTION  //////////////////////////////////////////////
+
+   /**
+    * Resolves this spec without a base font, unspecified attributes take the Font defaults.
+    */
+   public Font resolve() {
+      return resolve( null );
+   }
+
+   /**
+    * Resolves this spec against a base font.
+    * 
+    * @param base - The font to derive from, may be null
+    * @return the interned derived font
+    */
+   public Font resolve( Font base ) {
+      return FontUtilities.deriveFont( base, toKey() );
+   }
+
+   /**
+    * @return the immutable key of this spec's attributes, reused until the spec is modified
+    */
+   public FontKey toKey() {
+      if( key == null ) {
+         key = new FontKey( attributes );
+      }
+      return key;
+   }
+
+   /**
+    * @return an unmodifiable view of the attributes in this spec
+    */
+   public Map<Attribute, Object> getAttributes() {
+      return Collections.unmodifiableMap( attributes );
+   }
+
+   public boolean isEmpty() {
+      return attributes.isEmpty();
+   }
+
+   @Override
+   public int hashCode() {
+      return attributes.hashCode();
+   }
+
+   @Override
+   public boolean equals( Object obj ) {
+      if( this == obj ) {
+         return true;
+      }
+      if( !(obj instanceof FontSpec) ) {
+         return false;
+      }
+      return attributes.equals( ((FontSpec)obj).attributes );
+   }
+
+   @Override
+   public String toString() {
+      return "FontSpec" + attributes;
+   }
+}
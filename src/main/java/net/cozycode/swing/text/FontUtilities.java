@@ -17,7 +17,6 @@
 package net.cozycode.swing.text;
 
 import java.awt.Font;
-import java.awt.GraphicsEnvironment;
 import java.awt.Paint;
 import java.awt.font.TextAttribute;
 import java.awt.font.TransformAttribute;
@@ -30,11 +29,13 @@ import net.cozycode.constructs.Tuple2;
 public final class FontUtilities {
    private FontUtilities() { /* Static Singleton */ }
 
+   private static final FontDerivationCache DERIVATION_CACHE = new FontDerivationCache();
+
 
    //////  GETTERS  /////////////////////////////////////////////////
 
    public static boolean isSet( Font font, Attribute attribute ) {
-      return font.getAttributes().containsKey( attribute );
+      return FontAttributes.of( font ).containsKey( attribute );
    }
 
    public static String getFamily( Font font ) {
@@ -98,7 +99,7 @@ public final class FontUtilities {
    }
 
    public static TransformAttribute getTransform( Font font ) {
-      Object obj = font.getAttributes().get( TextAttribute.TRANSFORM );
+      Object obj = FontAttributes.of( font ).get( TextAttribute.TRANSFORM );
       return obj instanceof TransformAttribute ? (TransformAttribute)obj : null;
    }
 
@@ -107,17 +108,17 @@ public final class FontUtilities {
    }
 
    public static Number getAsNumber( Font font, Attribute attribute ) {
-      Object obj = font.getAttributes().get( attribute );
+      Object obj = FontAttributes.of( font ).get( attribute );
       return obj instanceof Number ? (Number)obj : null;
    }
 
    public static Boolean getAsBoolean( Font font, Attribute attribute ) {
-      Object obj = font.getAttributes().get( attribute );
+      Object obj = FontAttributes.of( font ).get( attribute );
       return obj instanceof Boolean ? (Boolean)obj : null;
    }
 
    public static Paint getAsPaint( Font font, Attribute attribute ) {
-      Object obj = font.getAttributes().get( attribute );
+      Object obj = FontAttributes.of( font ).get( attribute );
       return obj instanceof Paint ? (Paint)obj : null;
    }
 
@@ -357,7 +358,10 @@ public final class FontUtilities {
    }
 
    /**
-    * Derives a new font using the specified key, value pair
+    * Derives a new font using the specified key, value pair.
+    * <p>
+    * Derivations are interned through a shared {@link FontDerivationCache},
+    * so deriving the same font twice returns the same instance.
     * 
     * @param font - the font to derive from.
     * @param key - the Attribute key to change
@@ -365,9 +369,31 @@ public final class FontUtilities {
     * @return the derived font
     */
    public static Font deriveFont( Font font, Attribute key, Object value ) {
-      Map<Attribute, Object> attribs = getAttributes( font );
-      attribs.put( key, value );
-      return new Font( attribs );
+      return DERIVATION_CACHE.derive( font, key, value );
+   }
+
+   /**
+    * Derives a new font by applying every attribute in the spec.
+    * Equal specs resolved against equal fonts return the same instance.
+    * 
+    * @param font - The font to derive from, may be null
+    * @param spec - The derivations to apply
+    * @return the derived font
+    */
+   public static Font deriveFont( Font font, FontSpec spec ) {
+      return DERIVATION_CACHE.derive( font, spec );
+   }
+
+   /**
+    * Derives a new font by applying every attribute in the key.
+    * Equal keys applied to equal fonts return the same instance.
+    * 
+    * @param font - The font to derive from, may be null
+    * @param key - The derivations to apply
+    * @return the derived font
+    */
+   public static Font deriveFont( Font font, FontKey key ) {
+      return DERIVATION_CACHE.derive( font, key );
    }
 
    /**
@@ -376,7 +402,9 @@ public final class FontUtilities {
     * @param font - The font to derive from
     * @param derivations - a list of derivations specified as (Attribute,value) pairs.
     * @return the derived font
+    * @deprecated Allocates on every call and is never cached, use a {@link FontSpec} instead.
     */
+   @Deprecated
    public static Font deriveFont( Font font, Tuple2<Attribute,Object>... derivations ) {
       Map<Attribute, Object> attribs = getAttributes( font );
       for( Tuple2<Attribute,Object> item : derivations ) {
@@ -389,24 +417,36 @@ public final class FontUtilities {
 
    //////  OTHER HELPER METHODS  ////////////////////////////////////
 
+   /**
+    * @return the cache backing the deriveXxx methods and {@link FontKey#resolve(Font)}
+    */
+   public static FontDerivationCache getDerivationCache() {
+      return DERIVATION_CACHE;
+   }
+
    /**
     * Returns a map of known types rather than the unusable (poorly typed) map returned by Font.
+    * The returned map is a mutable copy.
     */
    public static Map<Attribute, Object> getAttributes( Font font ) {
-      return new HashMap<Attribute, Object>( font.getAttributes() );
+      return new HashMap<Attribute, Object>( FontAttributes.of( font ).asMap() );
    }
 
    /**
+    * Blocks until the {@link FontCatalog} is loaded, see {@link FontCatalog#warmUp()}.
+    * 
     * @return all available fonts
     */
    public static Font[] getAvailableFonts() {
-      return GraphicsEnvironment.getLocalGraphicsEnvironment().getAllFonts();
+      return FontCatalog.getInstance().getFonts();
    }
 
    /**
+    * Blocks until the {@link FontCatalog} is loaded, see {@link FontCatalog#warmUp()}.
+    * 
     * @return The names of all available fonts
     */
    public static String[] getAvailableFontNames() {
-      return GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+      return FontCatalog.getInstance().getFamilyNames();
    }
 }
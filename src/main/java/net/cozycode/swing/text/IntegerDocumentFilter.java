@@ -16,68 +16,22 @@
 
 package net.cozycode.swing.text;
 
-import java.util.regex.Pattern;
-
-import javax.swing.text.AttributeSet;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Document;
-import javax.swing.text.DocumentFilter;
-
-//TODO: Create a LongDocumentFilter (Use BigInteger to for bounds checking)
-//TODO: Allow for alternative radix support
-public class IntegerDocumentFilter extends DocumentFilter {
-   private static final Pattern POS_PATTERN = Pattern.compile( "[0-9]*" );
-   private static final Pattern NEG_PATTERN = Pattern.compile( "-?[0-9]*" );
-
-   private final boolean allowsNegative;
+/**
+ * Restricts a document to an optionally negative int.
+ * Edits which would leave the document above Integer.MAX_VALUE or below
+ * Integer.MIN_VALUE replace the text with the respective bound.
+ */
+public class IntegerDocumentFilter extends IntegralDocumentFilter {
 
    public IntegerDocumentFilter( boolean allowsNegative ) {
-      this.allowsNegative = allowsNegative;
-   }
-
-   protected Pattern getPattern() {
-      return allowsNegative ? NEG_PATTERN : POS_PATTERN;
-   }
-
-   protected boolean matches( String text ) {
-      return getPattern().matcher( text ).matches();
+      this( allowsNegative, 10 );
    }
 
-   protected boolean misplacedNegative( String text, int offset ) {
-      return text.length() > 0 && text.charAt(0) == '-' && offset != 0;
+   public IntegerDocumentFilter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
    }
 
-   @Override
-   public void insertString( FilterBypass fb, int offset, String text, AttributeSet attrs ) throws BadLocationException {
-      if( matches( text ) && !misplacedNegative( text, offset )) {
-         super.insertString( fb, offset, text, attrs );
-         checkUnderOverflow( fb, attrs );
-      }
-   }
-
-   @Override
-   public void replace( FilterBypass fb, int offset, int length, String text, AttributeSet attrs ) throws BadLocationException {
-      if( matches( text ) && !misplacedNegative( text, offset )) {
-         super.replace(fb, offset, length, text, attrs);
-         checkUnderOverflow( fb, attrs );
-      }
-   }
-
-   private final void checkUnderOverflow( FilterBypass fb, AttributeSet attr ) throws BadLocationException {
-      Document doc = fb.getDocument();
-      String s = doc.getText(0, doc.getLength() );
-
-      if( "".equals(s) || "-".equals(s) ) {
-         return;
-      }
-
-      long value = Long.valueOf( s );
-
-      if( value > Integer.MAX_VALUE ) {
-         fb.replace(0, doc.getLength(), Integer.toString( Integer.MAX_VALUE ), attr );
-      }
-      if( value < Integer.MIN_VALUE ) {
-         fb.replace(0, doc.getLength(), Integer.toString( Integer.MIN_VALUE ), attr );
-      }
+   public IntegerDocumentFilter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      super( allowsNegative, radix, symbols, Integer.MIN_VALUE, Integer.MAX_VALUE );
    }
 }
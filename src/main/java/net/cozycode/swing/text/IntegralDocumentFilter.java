@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.Segment;
+
+/**
+ * Restricts a document to an optionally negative integer in a given radix.
+ * Bounded filters replace the text with the respective bound when an edit
+ * would leave the document out of range.
+ * <p>
+ * Each edit is validated in a single pass over the document as it would be
+ * after the edit, reading the existing text through a reused Segment so
+ * typing does not copy the document or allocate. Bounds are checked while
+ * accumulating, the way Long.parseLong does, so no intermediate value is
+ * ever parsed or boxed. A paste of any length is validated, and clamped if need
+ * be, in that one pass and committed with a single replace.
+ * <p>
+ * With {@link #setBulkInsertEnabled(boolean) bulk insert} enabled, multi character
+ * insertions such as a cell pasted from a spreadsheet are cleaned up first.
+ * 
+ * @see IntegerDocumentFilter
+ * @see LongDocumentFilter
+ * @see BigIntegerDocumentFilter
+ */
+public abstract class IntegralDocumentFilter extends DocumentFilter {
+   private static final int INVALID = 0;
+   private static final int VALID = 1;
+   private static final int OVERFLOW = 2;
+
+   private final boolean allowsNegative;
+   private final int radix;
+   private final NumericSymbols symbols;
+   private final boolean bounded;
+   private final long min;
+   private final long max;
+   private final String minText;
+   private final String maxText;
+   private final Segment segment = new Segment();
+   private boolean bulkInsertEnabled;
+
+   // Scan state, filters only run on the thread holding the document lock.
+   private int index;
+   private boolean negative;
+   private boolean overflow;
+   private long value;
+   private long limit;
+   private long multmin;
+
+   /**
+    * Creates a filter bounded by [min, max]
+    */
+   protected IntegralDocumentFilter( boolean allowsNegative, int radix, long min, long max ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN, true, min, max );
+   }
+
+   /**
+    * Creates a filter bounded by [min, max] which accepts the locale's minus sign
+    */
+   protected IntegralDocumentFilter( boolean allowsNegative, int radix, NumericSymbols symbols, long min, long max ) {
+      this( allowsNegative, radix, symbols, true, min, max );
+   }
+
+   /**
+    * Creates an unbounded filter
+    */
+   protected IntegralDocumentFilter( boolean allowsNegative, int radix ) {
+      this( allowsNegative, radix, NumericSymbols.PLAIN );
+   }
+
+   /**
+    * Creates an unbounded filter which accepts the locale's minus sign
+    */
+   protected IntegralDocumentFilter( boolean allowsNegative, int radix, NumericSymbols symbols ) {
+      this( allowsNegative, radix, symbols, false, Long.MIN_VALUE, Long.MAX_VALUE );
+   }
+
+   private IntegralDocumentFilter( boolean allowsNegative, int radix, NumericSymbols symbols, boolean bounded, long min, long max ) {
+      if( radix < Character.MIN_RADIX || radix > Character.MAX_RADIX ) {
+         throw new IllegalArgumentException( "Unsupported radix: " + radix );
+      }
+      if( min > 0 || max < 0 ) {
+         throw new IllegalArgumentException( "Bounds must include zero: [" + min + ", " + max + "]" );
+      }
+      this.allowsNegative = allowsNegative;
+      this.radix = radix;
+      this.symbols = symbols;
+      this.bounded = bounded;
+      this.min = min;
+      this.max = max;
+      this.minText = symbols.localize( Long.toString( min, radix ));
+      this.maxText = Long.toString( max, radix );
+      this.segment.setPartialReturn( true );
+   }
+
+   public boolean allowsNegative() {
+      return allowsNegative;
+   }
+
+   public int getRadix() {
+      return radix;
+   }
+
+   public NumericSymbols getSymbols() {
+      return symbols;
+   }
+
+   public boolean isBulkInsertEnabled() {
+      return bulkInsertEnabled;
+   }
+
+   /**
+    * When enabled, text inserted in one go is reduced to its first tab or line separated
+    * cell with whitespace, grouping separators and a leading '+' dropped.
+    */
+   public void setBulkInsertEnabled( boolean enabled ) {
+      this.bulkInsertEnabled = enabled;
+   }
+
+   /**
+    * Applies this filter's rules to a complete value, such as a field read from a file,
+    * without a document. The text is cleaned up like a {@link #setBulkInsertEnabled(boolean) bulk insertion}
+    * and a value out of bounds is clamped as an edit would be. Unbounded filters clamp to
+    * the range of a long.
+    * <p>
+    * Unlike editing, this may be called from any thread and does not allocate.
+    * 
+    * @throws NumberFormatException if the filter would reject the text, or it holds no digits
+    */
+   public long parseLong( CharSequence text ) {
+      int length = text.length();
+      boolean negative = false;
+      boolean overflow = false;
+      boolean digits = false;
+      boolean plus = false;
+      long limit = -max;
+      long multmin = limit / radix;
+      long value = 0;
+      int kept = 0;
+      for( int i = 0; i < length; i++ ) {
+         char c = text.charAt( i );
+         if( BulkInsert.isWhitespace( c ) || symbols.isGroupingSeparator( c )) {
+            continue;
+         }
+         if( kept == 0 && c == '+' && !plus ) {
+            plus = true;
+            continue;
+         }
+         if( kept++ == 0 && !plus && symbols.isMinus( c )) {
+            if( !allowsNegative ) {
+               throw new NumberFormatException( text.toString() );
+            }
+            negative = true;
+            limit = min;
+            multmin = limit / radix;
+            continue;
+         }
+         int digit = digit( c, radix );
+         if( digit < 0 ) {
+            throw new NumberFormatException( text.toString() );
+         }
+         digits = true;
+         if( !overflow ) {
+            if( value < multmin ) {
+               overflow = true;
+            }
+            else {
+               value *= radix;
+               if( value < limit + digit ) {
+                  overflow = true;
+               }
+               else {
+                  value -= digit;
+               }
+            }
+         }
+      }
+      if( !digits ) {
+         throw new NumberFormatException( text.toString() );
+      }
+      if( overflow ) {
+         return negative ? min : max;
+      }
+      return negative ? value : -value;
+   }
+
+   @Override
+   public void insertString( FilterBypass fb, int offset, String text, AttributeSet attrs ) throws BadLocationException {
+      if( bulkInsertEnabled && text != null && text.length() > 1 ) {
+         text = BulkInsert.firstCell( text, symbols );
+      }
+      switch( check( fb.getDocument(), offset, 0, text )) {
+         case VALID:
+            super.insertString( fb, offset, text, attrs );
+            break;
+         case OVERFLOW:
+            clamp( fb, attrs );
+            break;
+      }
+   }
+
+   @Override
+   public void replace( FilterBypass fb, int offset, int length, String text, AttributeSet attrs ) throws BadLocationException {
+      if( bulkInsertEnabled && text != null && text.length() > 1 ) {
+         text = BulkInsert.firstCell( text, symbols );
+      }
+      switch( check( fb.getDocument(), offset, length, text )) {
+         case VALID:
+            super.replace( fb, offset, length, text, attrs );
+            break;
+         case OVERFLOW:
+            clamp( fb, attrs );
+            break;
+      }
+   }
+
+   @Override
+   public void remove( FilterBypass fb, int offset, int length ) throws BadLocationException {
+      // Removals go through unchecked, unless this one overflows a valid document,
+      // as removing the sign from MIN_VALUE does
+      Document doc = fb.getDocument();
+      if( check( doc, offset, length, null ) == OVERFLOW ) {
+         String clamped = negative ? minText : maxText;
+         if( check( doc, 0, 0, null ) == VALID ) {
+            fb.replace( 0, doc.getLength(), clamped, null );
+            return;
+         }
+      }
+      super.remove( fb, offset, length );
+   }
+
+   private void clamp( FilterBypass fb, AttributeSet attrs ) throws BadLocationException {
+      fb.replace( 0, fb.getDocument().getLength(), negative ? minText : maxText, attrs );
+   }
+
+   /**
+    * Scans the document as it would read after replacing <code>length</code> characters
+    * at <code>offset</code> with <code>text</code>.
+    */
+   private int check( Document doc, int offset, int length, String text ) throws BadLocationException {
+      index = 0;
+      negative = false;
+      overflow = false;
+      value = 0;
+      limit = -max;
+      multmin = limit / radix;
+
+      if( !scan( doc, 0, offset )) {
+         return INVALID;
+      }
+      if( text != null ) {
+         for( int i = 0; i < text.length(); i++ ) {
+            if( !accept( text.charAt( i ))) {
+               return INVALID;
+            }
+         }
+      }
+      if( !scan( doc, offset + length, doc.getLength() )) {
+         return INVALID;
+      }
+      return overflow ? OVERFLOW : VALID;
+   }
+
+   private boolean scan( Document doc, int from, int to ) throws BadLocationException {
+      while( from < to ) {
+         doc.getText( from, to - from, segment );
+         int end = segment.offset + segment.count;
+         for( int i = segment.offset; i < end; i++ ) {
+            if( !accept( segment.array[i] )) {
+               return false;
+            }
+         }
+         from += segment.count;
+      }
+      return true;
+   }
+
+   private boolean accept( char c ) {
+      if( index++ == 0 && symbols.isMinus( c )) {
+         negative = true;
+         limit = min;
+         multmin = limit / radix;
+         return allowsNegative;
+      }
+      int digit = digit( c, radix );
+      if( digit < 0 ) {
+         return false;
+      }
+      if( bounded && !overflow ) {
+         // Accumulate negatively so MIN_VALUE is representable
+         if( value < multmin ) {
+            overflow = true;
+         }
+         else {
+            value *= radix;
+            if( value < limit + digit ) {
+               overflow = true;
+            }
+            else {
+               value -= digit;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Like Character.digit, but only accepts ASCII digits and letters.
+    * 
+    * @return the value of the digit, or -1 if it is not a digit in the radix
+    */
+   static int digit( char c, int radix ) {
+      int digit;
+      if( c >= '0' && c <= '9' ) {
+         digit = c - '0';
+      }
+      else if( c >= 'a' && c <= 'z' ) {
+         digit = c - 'a' + 10;
+      }
+      else if( c >= 'A' && c <= 'Z' ) {
+         digit = c - 'A' + 10;
+      }
+      else {
+         return -1;
+      }
+      return digit < radix ? digit : -1;
+   }
+}
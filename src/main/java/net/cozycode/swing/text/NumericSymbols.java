@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The symbols used to write numbers in a locale, and allocation free routines to read them.
+ * <p>
+ * NumberFormat is expensive to create and not thread safe. NumericSymbols are read from it
+ * once per locale, are immutable and may be shared by any number of fields and threads.
+ * <p>
+ * Numbers are edited without grouping separators, the numeric filters only accept the
+ * decimal separator and minus sign. Grouping is applied for display by {@link #group(String, int)}
+ * and skipped when parsing, so grouped text can be read back.
+ */
+public final class NumericSymbols {
+   private static final char NONE = '\0';
+
+   /** The symbols the filters have always used, '.' and '-' without grouping. */
+   public static final NumericSymbols PLAIN = new NumericSymbols( '.', NONE, '-', 0 );
+
+   private static final ConcurrentMap<Locale, NumericSymbols> CACHE = new ConcurrentHashMap<Locale, NumericSymbols>();
+
+   private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+      1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+   };
+   private static final float[] FLOAT_POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f,
+   };
+
+   private final char decimalSeparator;
+   private final char groupingSeparator;
+   private final char minusSign;
+   private final int groupingSize;
+
+   private NumericSymbols( char decimalSeparator, char groupingSeparator, char minusSign, int groupingSize ) {
+      this.decimalSeparator = decimalSeparator;
+      this.groupingSeparator = groupingSeparator;
+      this.minusSign = minusSign;
+      this.groupingSize = groupingSize;
+   }
+
+   /**
+    * @return the cached symbols for a locale
+    */
+   public static NumericSymbols forLocale( Locale locale ) {
+      NumericSymbols symbols = CACHE.get( locale );
+      if( symbols == null ) {
+         DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance( locale );
+         NumberFormat format = NumberFormat.getNumberInstance( locale );
+         int groupingSize = format instanceof DecimalFormat && format.isGroupingUsed()
+               ? ((DecimalFormat)format).getGroupingSize()
+               : 0;
+         symbols = new NumericSymbols( dfs.getDecimalSeparator(), dfs.getGroupingSeparator(), dfs.getMinusSign(), groupingSize );
+         NumericSymbols existing = CACHE.putIfAbsent( locale, symbols );
+         if( existing != null ) {
+            symbols = existing;
+         }
+      }
+      return symbols;
+   }
+
+   public char getDecimalSeparator() {
+      return decimalSeparator;
+   }
+
+   public char getGroupingSeparator() {
+      return groupingSeparator;
+   }
+
+   public char getMinusSign() {
+      return minusSign;
+   }
+
+   /**
+    * @return the number of digits between grouping separators, 0 if the locale does not group
+    */
+   public int getGroupingSize() {
+      return groupingSize;
+   }
+
+
+   //////  CHARACTER CLASSES  ///////////////////////////////////////
+
+   /**
+    * The ASCII '-' is accepted as well as the locale's own minus sign.
+    */
+   public boolean isMinus( char c ) {
+      return c == '-' || c == minusSign;
+   }
+
+   public boolean isDecimalSeparator( char c ) {
+      return c == decimalSeparator;
+   }
+
+   /**
+    * Locales which group with a no-break space also accept a plain space.
+    */
+   public boolean isGroupingSeparator( char c ) {
+      if( groupingSize == 0 ) {
+         return false;
+      }
+      return c == groupingSeparator || (Character.isSpaceChar( groupingSeparator ) && Character.isSpaceChar( c ));
+   }
+
+
+   //////  WRITING  /////////////////////////////////////////////////
+
+   /**
+    * Translates plain text, as written by Long.toString or BigDecimal.toPlainString,
+    * to this locale's decimal separator and minus sign.
+    * 
+    * @return the text, or the argument itself if the symbols are the plain ones
+    */
+   public String localize( String plain ) {
+      if( decimalSeparator == '.' && minusSign == '-' ) {
+         return plain;
+      }
+      return plain.replace( '.', decimalSeparator ).replace( '-', minusSign );
+   }
+
+   /**
+    * Inserts grouping separators into the integer digits of localized, ungrouped text.
+    * Only decimal digits are grouped, the filters cannot read back other radixes grouped.
+    * 
+    * @param radix - The radix the text is written in
+    */
+   public String group( String text, int radix ) {
+      if( groupingSize == 0 || radix != 10 ) {
+         return text;
+      }
+      int start = text.length() > 0 && isMinus( text.charAt( 0 )) ? 1 : 0;
+      int end = text.indexOf( decimalSeparator );
+      if( end < 0 ) {
+         end = text.length();
+      }
+      int digits = end - start;
+      if( digits <= groupingSize ) {
+         return text;
+      }
+
+      StringBuilder sb = new StringBuilder( text.length() + digits / groupingSize );
+      sb.append( text, 0, start );
+      for( int i = start; i < end; i++ ) {
+         if( i > start && (end - i) % groupingSize == 0 ) {
+            sb.append( groupingSeparator );
+         }
+         sb.append( text.charAt( i ));
+      }
+      sb.append( text, end, text.length() );
+      return sb.toString();
+   }
+
+
+   //////  READING  /////////////////////////////////////////////////
+
+   /**
+    * @return whether the text holds no digits, only an optional minus sign and decimal separator
+    */
+   public boolean isIncomplete( CharSequence text ) {
+      int length = text.length();
+      int i = 0;
+      if( i < length && isMinus( text.charAt( i ))) {
+         i++;
+      }
+      if( i < length && isDecimalSeparator( text.charAt( i ))) {
+         i++;
+      }
+      return i == length;
+   }
+
+   /**
+    * Parses an integer, skipping grouping separators.
+    * 
+    * @throws NumberFormatException if the text is not an integer in the radix or overflows a long
+    */
+   public long parseLong( CharSequence text, int radix ) {
+      int length = text.length();
+      int i = 0;
+      boolean negative = false;
+      if( length > 0 && isMinus( text.charAt( 0 ))) {
+         negative = true;
+         i++;
+      }
+
+      long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+      long multmin = limit / radix;
+      long result = 0;
+      boolean digits = false;
+      for( ; i < length; i++ ) {
+         char c = text.charAt( i );
+         if( isGroupingSeparator( c )) {
+            continue;
+         }
+         int digit = IntegralDocumentFilter.digit( c, radix );
+         if( digit < 0 || result < multmin ) {
+            throw new NumberFormatException( text.toString() );
+         }
+         result *= radix;
+         if( result < limit + digit ) {
+            throw new NumberFormatException( text.toString() );
+         }
+         result -= digit;
+         digits = true;
+      }
+      if( !digits ) {
+         throw new NumberFormatException( text.toString() );
+      }
+      return negative ? result : -result;
+   }
+
+   /**
+    * Parses a decimal number, skipping grouping separators. Numbers with up to 15 significant
+    * digits and 22 decimal places are computed exactly without allocating, others fall back to
+    * Double.parseDouble.
+    * 
+    * @throws NumberFormatException if the text is not a decimal number
+    */
+   public double parseDouble( CharSequence text ) {
+      Decimal d = scan( text );
+      if( d.significant <= 15 && d.exponent >= -22 && d.exponent <= 22 ) {
+         double value = d.exponent < 0
+               ? d.mantissa / POWERS_OF_TEN[-d.exponent]
+               : d.mantissa * POWERS_OF_TEN[d.exponent];
+         return d.negative ? -value : value;
+      }
+      return Double.parseDouble( normalize( text ));
+   }
+
+   /**
+    * Parses a decimal number, see {@link #parseDouble(CharSequence)}. The allocation free
+    * path covers up to 7 significant digits and 10 decimal places.
+    */
+   public float parseFloat( CharSequence text ) {
+      Decimal d = scan( text );
+      if( d.significant <= 7 && d.exponent >= -10 && d.exponent <= 10 ) {
+         float value = d.exponent < 0
+               ? (float)d.mantissa / FLOAT_POWERS_OF_TEN[-d.exponent]
+               : (float)d.mantissa * FLOAT_POWERS_OF_TEN[d.exponent];
+         return d.negative ? -value : value;
+      }
+      return Float.parseFloat( normalize( text ));
+   }
+
+   /**
+    * @return the text with grouping removed and plain '.' and '-' symbols
+    */
+   public String normalize( CharSequence text ) {
+      StringBuilder sb = new StringBuilder( text.length() );
+      for( int i = 0; i < text.length(); i++ ) {
+         char c = text.charAt( i );
+         if( i == 0 && isMinus( c )) {
+            sb.append( '-' );
+         }
+         else if( isDecimalSeparator( c )) {
+            sb.append( '.' );
+         }
+         else if( !isGroupingSeparator( c )) {
+            sb.append( c );
+         }
+      }
+      return sb.toString();
+   }
+
+   private static final ThreadLocal<Decimal> DECIMALS = new ThreadLocal<Decimal>() {
+      @Override
+      protected Decimal initialValue() {
+         return new Decimal();
+      }
+   };
+
+   /**
+    * Splits decimal text into a mantissa of its first 18 significant digits and a power of ten.
+    */
+   private Decimal scan( CharSequence text ) {
+      Decimal d = DECIMALS.get();
+      d.negative = false;
+      d.mantissa = 0;
+      d.exponent = 0;
+      d.significant = 0;
+
+      int length = text.length();
+      int i = 0;
+      if( length > 0 && isMinus( text.charAt( 0 ))) {
+         d.negative = true;
+         i++;
+      }
+      boolean fraction = false;
+      boolean digits = false;
+      for( ; i < length; i++ ) {
+         char c = text.charAt( i );
+         if( c >= '0' && c <= '9' ) {
+            digits = true;
+            if( d.significant == 0 && c == '0' ) {
+               if( fraction ) {
+                  d.exponent--;
+               }
+               continue;
+            }
+            d.significant++;
+            if( d.significant <= 18 ) {
+               d.mantissa = d.mantissa * 10 + (c - '0');
+               if( fraction ) {
+                  d.exponent--;
+               }
+            }
+            else if( !fraction ) {
+               d.exponent++;
+            }
+         }
+         else if( isDecimalSeparator( c ) && !fraction ) {
+            fraction = true;
+         }
+         else if( !isGroupingSeparator( c ) || fraction ) {
+            throw new NumberFormatException( text.toString() );
+         }
+      }
+      if( !digits ) {
+         throw new NumberFormatException( text.toString() );
+      }
+      return d;
+   }
+
+   private static final class Decimal {
+      boolean negative;
+      long mantissa;
+      int exponent;
+      int significant;
+   }
+
+   @Override
+   public boolean equals( Object obj ) {
+      if( this == obj ) {
+         return true;
+      }
+      if( !(obj instanceof NumericSymbols) ) {
+         return false;
+      }
+      NumericSymbols other = (NumericSymbols)obj;
+      return decimalSeparator == other.decimalSeparator
+            && groupingSeparator == other.groupingSeparator
+            && minusSign == other.minusSign
+            && groupingSize == other.groupingSize;
+   }
+
+   @Override
+   public int hashCode() {
+      return ((decimalSeparator * 31 + groupingSeparator) * 31 + minusSign) * 31 + groupingSize;
+   }
+
+   @Override
+   public String toString() {
+      return "NumericSymbols[decimal=" + decimalSeparator + ", grouping=" + (groupingSize == 0 ? "none" : groupingSeparator + "/" + groupingSize)
+            + ", minus=" + minusSign + "]";
+   }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2011 Cozycode.net
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cozycode.swing.text;
+
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread safe cache of string widths, keyed by font, render context and text.
+ * <p>
+ * Measuring text lays it out glyph by glyph, which is wasted work when the same labels
+ * are painted over and over, as in the cells of a large table. Lookups reuse a single
+ * probe key so a cache hit does not allocate. When the cache grows beyond its maximum
+ * size the least recently measured text is evicted.
+ */
+public final class TextMeasurer {
+   public static final int DEFAULT_MAX_SIZE = 2048;
+
+   private static final TextMeasurer SHARED = new TextMeasurer();
+
+   private final int maxSize;
+   private final Map<Key, Double> cache;
+   private final Key probe = new Key();
+
+   // Painting measures with the same render context over and over, and its hash is not cached.
+   private FontRenderContext lastContext;
+   private int lastContextHash;
+
+   private long hits;
+   private long misses;
+   private long evictions;
+
+   public TextMeasurer() {
+      this( DEFAULT_MAX_SIZE );
+   }
+
+   public TextMeasurer( int maxSize ) {
+      if( maxSize <= 0 ) {
+         throw new IllegalArgumentException( "maxSize must be positive: " + maxSize );
+      }
+      this.maxSize = maxSize;
+      this.cache = new LinkedHashMap<Key, Double>( 16, 0.75f, true ) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry( Map.Entry<Key, Double> eldest ) {
+            if( size() > TextMeasurer.this.maxSize ) {
+               evictions++;
+               return true;
+            }
+            return false;
+         }
+      };
+   }
+
+   /**
+    * @return the measurer shared by the painting utilities and components of this library
+    */
+   public static TextMeasurer getShared() {
+      return SHARED;
+   }
+
+   /**
+    * @return the advance of <code>text</code> set in <code>font</code>, as
+    *         Font.getStringBounds(text, frc).getWidth() would measure it
+    */
+   public double getWidth( Font font, FontRenderContext frc, String text ) {
+      synchronized( cache ) {
+         Double width = cache.get( probe.set( font, frc, hashOf( frc ), text ));
+         probe.set( null, null, 0, null );
+         if( width != null ) {
+            hits++;
+            return width.doubleValue();
+         }
+         misses++;
+      }
+
+      // Measure outside of the lock, laying out text is not cheap.
+      double width = font.getStringBounds( text, frc ).getWidth();
+      synchronized( cache ) {
+         cache.put( new Key( font, frc, hashOf( frc ), text ), Double.valueOf( width ));
+      }
+      return width;
+   }
+
+   /**
+    * @return the advance of <code>text</code> in the graphics' current font and render context
+    */
+   public double getWidth( Graphics g, String text ) {
+      return getWidth( g.getFont(), renderContextOf( g ), text );
+   }
+
+   /**
+    * @return the advance of <code>text</code> in the graphics' current font, rounded to whole pixels
+    */
+   public int stringWidth( Graphics g, String text ) {
+      return (int)(0.5 + getWidth( g, text ));
+   }
+
+   private int hashOf( FontRenderContext frc ) {
+      if( frc != lastContext ) {
+         lastContext = frc;
+         lastContextHash = frc.hashCode();
+      }
+      return lastContextHash;
+   }
+
+   private static FontRenderContext renderContextOf( Graphics g ) {
+      if( g instanceof Graphics2D ) {
+         return ((Graphics2D)g).getFontRenderContext();
+      }
+      return g.getFontMetrics().getFontRenderContext();
+   }
+
+   public void clear() {
+      synchronized( cache ) {
+         cache.clear();
+      }
+   }
+
+   public int size() {
+      synchronized( cache ) {
+         return cache.size();
+      }
+   }
+
+   public int getMaxSize() {
+      return maxSize;
+   }
+
+   public long getHitCount() {
+      synchronized( cache ) {
+         return hits;
+      }
+   }
+
+   public long getMissCount() {
+      synchronized( cache ) {
+         return misses;
+      }
+   }
+
+   public long getEvictionCount() {
+      synchronized( cache ) {
+         return evictions;
+      }
+   }
+
+   /**
+    * @return the fraction of lookups answered from the cache, 0 before the first lookup
+    */
+   public double getHitRate() {
+      synchronized( cache ) {
+         long lookups = hits + misses;
+         return lookups == 0 ? 0d : (double)hits / lookups;
+      }
+   }
+
+   /**
+    * Resets the hit, miss and eviction counters without clearing the cache.
+    */
+   public void resetStatistics() {
+      synchronized( cache ) {
+         hits = 0;
+         misses = 0;
+         evictions = 0;
+      }
+   }
+
+   @Override
+   public String toString() {
+      synchronized( cache ) {
+         return "TextMeasurer[size=" + cache.size() + ", maxSize=" + maxSize
+               + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+      }
+   }
+
+
+   private static final class Key {
+      private Font font;
+      private FontRenderContext frc;
+      private String text;
+      private int hash;
+
+      Key() { /* probe */ }
+
+      Key( Font font, FontRenderContext frc, int frcHash, String text ) {
+         set( font, frc, frcHash, text );
+      }
+
+      Key set( Font font, FontRenderContext frc, int frcHash, String text ) {
+         this.font = font;
+         this.frc = frc;
+         this.text = text;
+         this.hash = ((font == null ? 0 : font.hashCode()) * 31 + frcHash) * 31
+               + (text == null ? 0 : text.hashCode());
+         return this;
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      @Override
+      public boolean equals( Object obj ) {
+         if( this == obj ) {
+            return true;
+         }
+         if( !(obj instanceof Key) ) {
+            return false;
+         }
+         Key other = (Key)obj;
+         return hash == other.hash
+               && text.equals( other.text )
+               && font.equals( other.font )
+               && frc.equals( other.frc );
+      }
+   }
+}